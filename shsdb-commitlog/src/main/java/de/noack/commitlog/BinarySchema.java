@@ -0,0 +1,407 @@
+package de.noack.commitlog;
+
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.api.SchemaSerializationException;
+import org.apache.pulsar.common.schema.SchemaInfo;
+import org.apache.pulsar.common.schema.SchemaType;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * This class represents a compact binary {@link Schema} for the POJOs of this application. The fields of a class, including inherited ones, are
+ * written in the order of their names after a bitmap which marks null values. Integers and dates are written as variable length integers, dates
+ * as epoch days, and decimals as scale plus unscaled value, which is a variable length long for all but very large values. Nested POJOs are written
+ * the same way. The layout of each class is derived once via reflection and cached.
+ * <p>
+ * As the fields are not named within a record, a record can only be decoded with the layout it has been encoded with. The layout, i.e. the names
+ * and types of all fields including those of nested POJOs, is the definition of the {@link SchemaInfo}, so that the broker registers a new version
+ * of the schema for a changed model class. Each record starts with the fingerprint of its layout, so that a record of another layout is rejected
+ * when it is decoded instead of being read as garbage, also if it has been read from a commit log without a schema registry.
+ *
+ * @author davidnoack
+ */
+public final class BinarySchema<T> implements Schema<T> {
+    private static final Map<Class<?>, BinarySchema<?>> SCHEMAS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ValueCodec> CODECS = new HashMap<>();
+    private static final ThreadLocal<BinaryWriter> WRITER = ThreadLocal.withInitial(BinaryWriter::new);
+    private static final int UNSCALED_LONG = 0;
+    private final Class<T> type;
+    private final ObjectCodec codec;
+    private final int layoutFingerprint;
+    private final SchemaInfo schemaInfo;
+
+    private BinarySchema(final Class<T> type) {
+        this.type = type;
+        this.codec = objectCodecOf(type);
+        final String layout = codec.layout();
+        // The hash code of a string is specified, so that the fingerprint of a layout is the same within every JVM
+        this.layoutFingerprint = layout.hashCode();
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("encoding", "binary");
+        properties.put("layout", Integer.toHexString(layoutFingerprint));
+        this.schemaInfo = new SchemaInfo(type.getName(), layout.getBytes(UTF_8), SchemaType.BYTES, properties);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> BinarySchema<T> of(final Class<T> type) {
+        return (BinarySchema<T>) SCHEMAS.computeIfAbsent(type, BinarySchema::new);
+    }
+
+    @Override
+    public byte[] encode(final T message) {
+        final BinaryWriter writer = WRITER.get();
+        writer.reset();
+        writer.writeInt(layoutFingerprint);
+        try {
+            codec.write(writer, message);
+        } catch (final IllegalAccessException e) {
+            throw new SchemaSerializationException(e.getMessage());
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public T decode(final byte[] bytes) {
+        try {
+            final BinaryReader reader = new BinaryReader(bytes);
+            final int recordFingerprint = reader.readInt();
+            if (recordFingerprint != layoutFingerprint) {
+                throw new IllegalArgumentException("Layout " + Integer.toHexString(recordFingerprint) + " of record does not match layout "
+                        + Integer.toHexString(layoutFingerprint));
+            }
+            return type.cast(codec.read(reader));
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            throw new SchemaSerializationException("Cannot decode " + type.getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public SchemaInfo getSchemaInfo() {
+        return schemaInfo;
+    }
+
+    private static synchronized ObjectCodec objectCodecOf(final Class<?> type) {
+        final ValueCodec codec = codecOf(type);
+        if (!(codec instanceof ObjectCodec)) throw new IllegalArgumentException(type + " is not a POJO");
+        return (ObjectCodec) codec;
+    }
+
+    private static ValueCodec codecOf(final Class<?> type) {
+        final ValueCodec codec = CODECS.get(type);
+        if (codec != null) return codec;
+        if (type == String.class) return register(type, new StringCodec());
+        if (type == Integer.class || type == int.class) return register(type, new IntegerCodec());
+        if (type == Long.class || type == long.class) return register(type, new LongCodec());
+        if (type == Boolean.class || type == boolean.class) return register(type, new BooleanCodec());
+        if (type == BigDecimal.class) return register(type, new BigDecimalCodec());
+        if (type == LocalDate.class) return register(type, new LocalDateCodec());
+        final ObjectCodec objectCodec = new ObjectCodec();
+        // Register before the fields are resolved so that nested references to the same class terminate
+        CODECS.put(type, objectCodec);
+        try {
+            objectCodec.initialize(type);
+        } catch (final RuntimeException e) {
+            // A class which cannot be described must not leave an uninitialized codec behind for the next lookup
+            CODECS.remove(type);
+            throw e;
+        }
+        return objectCodec;
+    }
+
+    private static ValueCodec register(final Class<?> type, final ValueCodec codec) {
+        CODECS.put(type, codec);
+        return codec;
+    }
+
+    private interface ValueCodec {
+        void write(final BinaryWriter writer, final Object value) throws IllegalAccessException;
+
+        Object read(final BinaryReader reader) throws ReflectiveOperationException;
+    }
+
+    private static final class ObjectCodec implements ValueCodec {
+        private Class<?> type;
+        private Constructor<?> constructor;
+        private Field[] fields;
+        private ValueCodec[] codecs;
+
+        private void initialize(final Class<?> type) {
+            final List<Field> declaredFields = new ArrayList<>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (final Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers()) || field.isSynthetic()) continue;
+                    field.setAccessible(true);
+                    declaredFields.add(field);
+                }
+            }
+            declaredFields.sort(Comparator.comparing(Field::getName));
+            final ValueCodec[] fieldCodecs = new ValueCodec[declaredFields.size()];
+            for (int i = 0; i < fieldCodecs.length; i++) {
+                fieldCodecs[i] = codecOf(declaredFields.get(i).getType());
+            }
+            try {
+                constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (final NoSuchMethodException e) {
+                throw new IllegalArgumentException(type + " does not have a constructor without arguments");
+            }
+            this.type = type;
+            fields = declaredFields.toArray(new Field[0]);
+            codecs = fieldCodecs;
+        }
+
+        /**
+         * Returns the names and types of the fields in the order they are written. A nested POJO which is already being described is referenced by
+         * its class name only.
+         */
+        private String layout() {
+            final StringBuilder layout = new StringBuilder();
+            describe(layout, new HashSet<>());
+            return layout.toString();
+        }
+
+        private void describe(final StringBuilder layout, final Set<ObjectCodec> describedCodecs) {
+            layout.append(type.getName());
+            if (!describedCodecs.add(this)) return;
+            layout.append('{');
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) layout.append(',');
+                layout.append(fields[i].getName()).append(':');
+                if (codecs[i] instanceof ObjectCodec) ((ObjectCodec) codecs[i]).describe(layout, describedCodecs);
+                else layout.append(fields[i].getType().getName());
+            }
+            layout.append('}');
+            describedCodecs.remove(this);
+        }
+
+        @Override
+        public void write(final BinaryWriter writer, final Object value) throws IllegalAccessException {
+            final Object[] values = new Object[fields.length];
+            final byte[] nullBitmap = new byte[(fields.length + 7) / 8];
+            for (int i = 0; i < fields.length; i++) {
+                values[i] = fields[i].get(value);
+                if (values[i] == null) nullBitmap[i / 8] |= 1 << i % 8;
+            }
+            writer.writeBytes(nullBitmap);
+            for (int i = 0; i < fields.length; i++) {
+                if (values[i] != null) codecs[i].write(writer, values[i]);
+            }
+        }
+
+        @Override
+        public Object read(final BinaryReader reader) throws ReflectiveOperationException {
+            final Object value = constructor.newInstance();
+            final byte[] nullBitmap = reader.readBytes((fields.length + 7) / 8);
+            for (int i = 0; i < fields.length; i++) {
+                if ((nullBitmap[i / 8] & 1 << i % 8) == 0) fields[i].set(value, codecs[i].read(reader));
+            }
+            return value;
+        }
+    }
+
+    private static final class StringCodec implements ValueCodec {
+        @Override
+        public void write(final BinaryWriter writer, final Object value) {
+            writer.writeString((String) value);
+        }
+
+        @Override
+        public Object read(final BinaryReader reader) {
+            return reader.readString();
+        }
+    }
+
+    private static final class IntegerCodec implements ValueCodec {
+        @Override
+        public void write(final BinaryWriter writer, final Object value) {
+            writer.writeSignedVarLong((Integer) value);
+        }
+
+        @Override
+        public Object read(final BinaryReader reader) {
+            return (int) reader.readSignedVarLong();
+        }
+    }
+
+    private static final class LongCodec implements ValueCodec {
+        @Override
+        public void write(final BinaryWriter writer, final Object value) {
+            writer.writeSignedVarLong((Long) value);
+        }
+
+        @Override
+        public Object read(final BinaryReader reader) {
+            return reader.readSignedVarLong();
+        }
+    }
+
+    private static final class BooleanCodec implements ValueCodec {
+        @Override
+        public void write(final BinaryWriter writer, final Object value) {
+            writer.writeByte((Boolean) value ? 1 : 0);
+        }
+
+        @Override
+        public Object read(final BinaryReader reader) {
+            return reader.readByte() != 0;
+        }
+    }
+
+    private static final class LocalDateCodec implements ValueCodec {
+        @Override
+        public void write(final BinaryWriter writer, final Object value) {
+            writer.writeSignedVarLong(((LocalDate) value).toEpochDay());
+        }
+
+        @Override
+        public Object read(final BinaryReader reader) {
+            return LocalDate.ofEpochDay(reader.readSignedVarLong());
+        }
+    }
+
+    private static final class BigDecimalCodec implements ValueCodec {
+        @Override
+        public void write(final BinaryWriter writer, final Object value) {
+            final BigDecimal decimal = (BigDecimal) value;
+            final BigInteger unscaledValue = decimal.unscaledValue();
+            writer.writeSignedVarLong(decimal.scale());
+            // Nearly all values fit into a long, larger ones are written as two's complement bytes preceded by their length
+            if (unscaledValue.bitLength() < Long.SIZE) {
+                writer.writeSignedVarLong(UNSCALED_LONG);
+                writer.writeSignedVarLong(unscaledValue.longValue());
+            } else {
+                final byte[] bytes = unscaledValue.toByteArray();
+                writer.writeSignedVarLong(bytes.length);
+                writer.writeBytes(bytes);
+            }
+        }
+
+        @Override
+        public Object read(final BinaryReader reader) {
+            final int scale = (int) reader.readSignedVarLong();
+            final int length = (int) reader.readSignedVarLong();
+            if (length == UNSCALED_LONG) return BigDecimal.valueOf(reader.readSignedVarLong(), scale);
+            return new BigDecimal(new BigInteger(reader.readBytes(length)), scale);
+        }
+    }
+
+    private static final class BinaryWriter {
+        private byte[] buffer = new byte[1024];
+        private int position;
+
+        private void reset() {
+            position = 0;
+        }
+
+        private void ensureCapacity(final int additionalBytes) {
+            if (position + additionalBytes > buffer.length) buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additionalBytes));
+        }
+
+        private void writeByte(final int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeBytes(final byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void writeInt(final int value) {
+            ensureCapacity(Integer.BYTES);
+            for (int shift = Integer.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeSignedVarLong(final long value) {
+            // Zig-zag encoding keeps small negative values short
+            long remaining = value << 1 ^ value >> 63;
+            ensureCapacity(10);
+            while ((remaining & ~0x7FL) != 0) {
+                buffer[position++] = (byte) (remaining & 0x7F | 0x80);
+                remaining >>>= 7;
+            }
+            buffer[position++] = (byte) remaining;
+        }
+
+        private void writeString(final String value) {
+            final int length = value.length();
+            boolean isAscii = true;
+            for (int i = 0; i < length && isAscii; i++) {
+                isAscii = value.charAt(i) < 0x80;
+            }
+            if (isAscii) {
+                writeSignedVarLong(length);
+                ensureCapacity(length);
+                for (int i = 0; i < length; i++) {
+                    buffer[position++] = (byte) value.charAt(i);
+                }
+            } else {
+                final byte[] bytes = value.getBytes(UTF_8);
+                writeSignedVarLong(bytes.length);
+                writeBytes(bytes);
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class BinaryReader {
+        private final byte[] buffer;
+        private int position;
+
+        private BinaryReader(final byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private byte readByte() {
+            return buffer[position++];
+        }
+
+        private byte[] readBytes(final int length) {
+            final byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        private int readInt() {
+            int value = 0;
+            for (int i = 0; i < Integer.BYTES; i++) {
+                value = value << Byte.SIZE | buffer[position++] & 0xFF;
+            }
+            return value;
+        }
+
+        private long readSignedVarLong() {
+            long result = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = buffer[position++];
+                result |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while (current < 0);
+            return result >>> 1 ^ -(result & 1);
+        }
+
+        private String readString() {
+            final int length = (int) readSignedVarLong();
+            final String value = new String(buffer, position, length, UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
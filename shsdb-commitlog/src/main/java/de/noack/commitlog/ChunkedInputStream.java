@@ -0,0 +1,66 @@
+package de.noack.commitlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This class represents a file which has been published in chunks, as one continuous stream. The chunks are read from the commit log one after the
+ * other while the stream is read, so that at most one chunk of the file is held in memory. Closing the stream releases the resource the chunks are
+ * read with, e.g. a reader of the topic.
+ *
+ * @author davidnoack
+ */
+public class ChunkedInputStream extends InputStream {
+    private final ChunkSource chunkSource;
+    private final Closeable resource;
+    private byte[] chunk = new byte[0];
+    private int position;
+    private boolean isEndOfFile;
+
+    public ChunkedInputStream(final ChunkSource chunkSource, final Closeable resource) {
+        this.chunkSource = chunkSource;
+        this.resource = resource;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return hasRemainingBytes() ? chunk[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (length == 0) return 0;
+        if (!hasRemainingBytes()) return -1;
+        final int readBytes = Math.min(length, chunk.length - position);
+        System.arraycopy(chunk, position, bytes, offset, readBytes);
+        position += readBytes;
+        return readBytes;
+    }
+
+    private boolean hasRemainingBytes() throws IOException {
+        while (position == chunk.length) {
+            if (isEndOfFile) return false;
+            final byte[] nextChunk = chunkSource.next();
+            if (nextChunk == null) {
+                isEndOfFile = true;
+                return false;
+            }
+            chunk = nextChunk;
+            position = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        resource.close();
+    }
+
+    public interface ChunkSource {
+        /**
+         * Returns the next chunk of the file or null, if all chunks have been read.
+         */
+        byte[] next() throws IOException;
+    }
+}
@@ -0,0 +1,45 @@
+package de.noack.commitlog;
+
+import de.noack.commitlog.kafka.KafkaCommitLogClient;
+import de.noack.commitlog.memory.MappedCommitLogClient;
+import de.noack.commitlog.pulsar.PulsarCommitLogClient;
+
+import java.io.IOException;
+
+/**
+ * This enum represents the possible commit log technologies which can be used to get the application running. The chosen technology depends on the
+ * value set in the application.properties file.
+ *
+ * @author davidnoack
+ */
+public enum CommitLog {
+    /**
+     * Apache Pulsar, whose service URL is set as "commitlog.pulsar.service-url".
+     */
+    PULSAR {
+        @Override
+        public CommitLogClient connect(final CommitLogSettings settings) throws IOException {
+            return new PulsarCommitLogClient(settings.getPulsarServiceUrl());
+        }
+    },
+    /**
+     * Apache Kafka, whose bootstrap servers are set as "commitlog.kafka.bootstrap-servers".
+     */
+    KAFKA {
+        @Override
+        public CommitLogClient connect(final CommitLogSettings settings) {
+            return new KafkaCommitLogClient(settings.getKafkaBootstrapServers());
+        }
+    },
+    /**
+     * The in-process commit log, whose topics are memory-mapped files within the directory set as "commitlog.memory.directory".
+     */
+    MEMORY {
+        @Override
+        public CommitLogClient connect(final CommitLogSettings settings) {
+            return new MappedCommitLogClient(settings.getMemoryDirectory());
+        }
+    };
+
+    public abstract CommitLogClient connect(final CommitLogSettings settings) throws IOException;
+}
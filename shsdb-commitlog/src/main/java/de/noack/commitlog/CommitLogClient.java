@@ -0,0 +1,22 @@
+package de.noack.commitlog;
+
+import org.apache.pulsar.client.api.Schema;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * This interface represents the connection to a commit log, which is shared by all topics opened with it. Closing the client closes the
+ * connection, so that it has to be closed after its topics.
+ *
+ * @author davidnoack
+ */
+public interface CommitLogClient extends Closeable {
+    /**
+     * Opens the topic with the given name, which is created with the configuration of its type unless it exists already. Records are encoded with
+     * the given schema, e.g. the one of a {@link WireFormat}.
+     *
+     * @param name the name of the topic, which may contain the namespace of a Pulsar topic
+     */
+    <V> Topic<V> openTopic(final String name, final TopicType type, final Schema<V> schema) throws IOException;
+}
@@ -0,0 +1,54 @@
+package de.noack.commitlog;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * This class provides the {@link CommitLogClient} of the commit log technology set as "commitlog" in the application.properties file, together
+ * with the address of its broker or directory. The client is connected on first use and shared by all topics of the application.
+ *
+ * @author davidnoack
+ */
+@ApplicationScoped
+public class CommitLogProvider {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommitLogProvider.class);
+    @Inject
+    @ConfigProperty(name = "commitlog")
+    CommitLog commitLog;
+    @Inject
+    @ConfigProperty(name = "commitlog.pulsar.service-url")
+    String pulsarServiceUrl;
+    @Inject
+    @ConfigProperty(name = "commitlog.kafka.bootstrap-servers")
+    String kafkaBootstrapServers;
+    @Inject
+    @ConfigProperty(name = "commitlog.memory.directory")
+    String memoryDirectory;
+    private CommitLogClient client;
+
+    public synchronized CommitLogClient client() throws IOException {
+        if (client == null) {
+            client = commitLog.connect(new CommitLogSettings(pulsarServiceUrl, kafkaBootstrapServers, Paths.get(memoryDirectory)));
+            LOGGER.info("Connected to the commit log {}", commitLog);
+        }
+        return client;
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (client == null) return;
+        try {
+            client.close();
+        } catch (final IOException e) {
+            LOGGER.error("Error occurred during close! Reason: {}", e.getMessage());
+        }
+        client = null;
+    }
+}
@@ -0,0 +1,17 @@
+package de.noack.commitlog;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * This class represents the addresses of the commit logs, of which only the one of the chosen technology is used.
+ *
+ * @author davidnoack
+ */
+@Value
+public class CommitLogSettings {
+    String pulsarServiceUrl;
+    String kafkaBootstrapServers;
+    Path memoryDirectory;
+}
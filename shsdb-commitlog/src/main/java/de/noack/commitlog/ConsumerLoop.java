@@ -0,0 +1,122 @@
+package de.noack.commitlog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * This class represents a thread which consumes a {@link Subscription} batch by batch until it is stopped. A batch is committed once its handler
+ * has returned, so that the handler has to throw an exception if any of its records has not been processed, e.g. because a record derived from it
+ * could not be published. A failed batch is logged and rewound, so that it is delivered once more after a pause instead of ending the loop. The
+ * pause doubles with every failed attempt, so that an unavailable broker is not hammered. A batch which still fails after ten attempts is skipped:
+ * the keys and positions of its records are logged and it is committed, so that a single poisoned batch does not block its subscription forever.
+ * The subscription is closed by the thread of the loop once it has been stopped, as it must not be accessed by multiple threads concurrently.
+ *
+ * @author davidnoack
+ */
+public class ConsumerLoop<V> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConsumerLoop.class);
+    private static final long POLL_TIMEOUT_MILLIS = 500;
+    private static final long RETRY_DELAY_MILLIS = 1_000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+    private static final int MAX_ATTEMPTS = 10;
+    private final String name;
+    private final Subscription<V> subscription;
+    private final int maxRecords;
+    private final BatchHandler<V> handler;
+    private volatile boolean isRunning;
+    private Thread thread;
+
+    public ConsumerLoop(final String name, final Subscription<V> subscription, final int maxRecords, final BatchHandler<V> handler) {
+        this.name = name;
+        this.subscription = subscription;
+        this.maxRecords = maxRecords;
+        this.handler = handler;
+    }
+
+    public synchronized void start() {
+        isRunning = true;
+        thread = new Thread(this::consume, name);
+        thread.start();
+    }
+
+    private void consume() {
+        try {
+            int failedAttempts = 0;
+            while (isRunning) {
+                List<LogRecord<V>> records = null;
+                try {
+                    records = subscription.poll(maxRecords, POLL_TIMEOUT_MILLIS);
+                    if (records.isEmpty()) continue;
+                    handler.handle(records);
+                    subscription.commit();
+                    failedAttempts = 0;
+                } catch (final IOException | RuntimeException e) {
+                    if (!isRunning) break;
+                    failedAttempts++;
+                    // A batch which could not even be polled cannot be skipped, so that polling is retried until the broker is available again
+                    if (failedAttempts < MAX_ATTEMPTS || records == null || records.isEmpty()) {
+                        LOGGER.error("Error during consumption of {} occurred, the batch is consumed again. Reason: {}", name, e.getMessage(), e);
+                        rewind(failedAttempts);
+                    } else {
+                        skip(records, e);
+                        failedAttempts = 0;
+                    }
+                }
+            }
+        } finally {
+            try {
+                subscription.close();
+            } catch (final IOException e) {
+                LOGGER.error("Error occurred during close of {}! Reason: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    private void skip(final List<LogRecord<V>> records, final Exception e) {
+        LOGGER.error("Skipping batch of {} records of {} after {} failed attempts. Reason: {}", records.size(), name, MAX_ATTEMPTS, e.getMessage(),
+                e);
+        for (final LogRecord<V> record : records) {
+            LOGGER.error("Skipped record {} at position {} of {}", record.getKey(), record.getPosition(), name);
+        }
+        try {
+            subscription.commit();
+        } catch (final IOException | RuntimeException commitException) {
+            LOGGER.error("Error during commit of skipped batch of {} occurred. Reason: {}", name, commitException.getMessage());
+            rewind(1);
+        }
+    }
+
+    private void rewind(final int failedAttempts) {
+        try {
+            subscription.rewind();
+            Thread.sleep(Math.min(RETRY_DELAY_MILLIS << Math.min(failedAttempts - 1, 16), MAX_RETRY_DELAY_MILLIS));
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.error("Error during rewind of {} occurred. Reason: {}", name, e.getMessage());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            isRunning = false;
+        }
+    }
+
+    /**
+     * Stops the loop and waits until the batch being handled has been finished and the subscription has been closed.
+     */
+    public synchronized void stop() {
+        isRunning = false;
+        if (thread == null) return;
+        try {
+            thread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @FunctionalInterface
+    public interface BatchHandler<V> {
+        void handle(final List<LogRecord<V>> records) throws IOException;
+    }
+}
@@ -0,0 +1,146 @@
+package de.noack.commitlog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class represents a topic of uploaded files on top of a {@link Topic} of the type {@link TopicType#FILES}. A file is published as
+ * line-aligned chunks while it is read, followed by a trailer which refers to the position of the first chunk and carries the number of chunks, so
+ * that neither the service nor the commit log has to hold a whole file. A file is complete once its trailer has been published, so that files are
+ * found and consumed by their trailers, while their chunks are read one after the other when the file is read. Files which have been published
+ * before the introduction of chunks consist of a single record without properties.
+ *
+ * @author davidnoack
+ */
+public class FileTopic implements Closeable {
+    /**
+     * Name of the property which carries the index of a chunk of a file. The chunks of a file are followed by a trailer with the name of the
+     * property which carries their number.
+     */
+    public static final String CHUNK_PROPERTY = "chunk";
+    public static final String CHUNKS_PROPERTY = "chunks";
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileTopic.class);
+    private static final long READ_TIMEOUT_MILLIS = 10_000;
+    private final Topic<byte[]> topic;
+
+    public FileTopic(final Topic<byte[]> topic) {
+        this.topic = topic;
+    }
+
+    public String getName() {
+        return topic.getName();
+    }
+
+    /**
+     * Publishes the given file with the given key and returns the position of its trailer once all of its chunks have been persisted.
+     */
+    public Position produce(final String key, final InputStream file) throws IOException {
+        final LineChunker lineChunker = new LineChunker(file, LineChunker.CHUNK_BYTES);
+        final AtomicReference<Throwable> sendFailure = new AtomicReference<>();
+        CompletableFuture<Position> lastChunk = CompletableFuture.completedFuture(null);
+        Position firstChunk = null;
+        int chunks = 0;
+        byte[] chunk;
+        while (sendFailure.get() == null && (chunk = lineChunker.next()) != null) {
+            final String chunkIndex = String.valueOf(chunks++);
+            // The trailer refers to the first chunk, so that the chunks are read without searching the topic
+            if (firstChunk == null) firstChunk = topic.produce(key, chunk, Collections.singletonMap(CHUNK_PROPERTY, chunkIndex));
+            else lastChunk = topic.produceAsync(key, null, chunk, Collections.singletonMap(CHUNK_PROPERTY, chunkIndex))
+                    .whenComplete((position, e) -> {
+                        if (e != null) sendFailure.compareAndSet(null, e);
+                    });
+        }
+        topic.flush();
+        try {
+            lastChunk.join();
+        } catch (final CompletionException e) {
+            sendFailure.compareAndSet(null, e.getCause());
+        }
+        if (sendFailure.get() != null) throw new IOException("Cannot publish chunks of file " + key, sendFailure.get());
+        final Position trailer = topic.produce(key, firstChunk != null ? firstChunk.toByteArray() : new byte[0],
+                Collections.singletonMap(CHUNKS_PROPERTY, String.valueOf(chunks)));
+        LOGGER.info("Published {} chunks of file {} to the topic {}", chunks, key, topic.getName());
+        return trailer;
+    }
+
+    public static boolean isChunk(final LogRecord<byte[]> record) {
+        return record.hasProperty(CHUNK_PROPERTY);
+    }
+
+    /**
+     * Returns the file completed by the given trailer. Its chunks are read while the returned stream is read, which has to be closed to release
+     * the reader of the chunks.
+     */
+    public InputStream fileOf(final LogRecord<byte[]> trailer) throws IOException {
+        if (!trailer.hasProperty(CHUNKS_PROPERTY)) return new ByteArrayInputStream(trailer.getValue());
+        final int chunks = Integer.parseInt(trailer.getProperty(CHUNKS_PROPERTY));
+        if (chunks == 0) return new ByteArrayInputStream(new byte[0]);
+        final String key = trailer.getKey();
+        final LogReader<byte[]> reader = topic.readFrom(topic.positionOf(trailer.getValue()));
+        final int[] readChunks = {0};
+        return new ChunkedInputStream(() -> {
+            if (readChunks[0] == chunks) return null;
+            // Chunks of files which have been uploaded at the same time are skipped
+            while (true) {
+                final LogRecord<byte[]> chunk = reader.next(READ_TIMEOUT_MILLIS);
+                if (chunk == null) throw new IOException("Timeout during reading from topic " + topic.getName());
+                if (chunk.getPosition().compareTo(trailer.getPosition()) >= 0) throw new IOException("File " + key + " is missing chunks");
+                if (!key.equals(chunk.getKey()) || !isChunk(chunk)) continue;
+                final int chunkIndex = Integer.parseInt(chunk.getProperty(CHUNK_PROPERTY));
+                // A chunk which has been sent again by the producer is skipped, whereas a lost chunk would corrupt the file
+                if (chunkIndex < readChunks[0]) continue;
+                if (chunkIndex > readChunks[0]) throw new IOException("File " + key + " is missing chunk " + readChunks[0]);
+                readChunks[0]++;
+                return chunk.getValue();
+            }
+        }, reader);
+    }
+
+    /**
+     * Returns the latest file with the given key or null if there is none.
+     */
+    public InputStream find(final String key) throws IOException {
+        final LogRecord<byte[]> trailer = topic.latest(key);
+        return trailer != null && !isChunk(trailer) ? fileOf(trailer) : null;
+    }
+
+    /**
+     * Passes all complete files to the handler one after the other. Chunks are read with the trailer of their file, so that files which have not
+     * been completed are left out.
+     */
+    public void forEachFile(final FileHandler handler) throws IOException {
+        topic.forEach(record -> {
+            if (isChunk(record)) return true;
+            try (final InputStream file = fileOf(record)) {
+                handler.handle(record.getKey(), file);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Returns a subscription of the topic, which delivers chunks as well as trailers. Chunks are to be committed without being handled.
+     */
+    public Subscription<byte[]> subscribe(final String subscriptionName, final SubscriptionOptions options) throws IOException {
+        return topic.subscribe(subscriptionName, options);
+    }
+
+    @Override
+    public void close() throws IOException {
+        topic.close();
+    }
+
+    @FunctionalInterface
+    public interface FileHandler {
+        void handle(final String key, final InputStream file) throws IOException;
+    }
+}
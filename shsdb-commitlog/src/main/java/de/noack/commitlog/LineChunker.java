@@ -0,0 +1,51 @@
+package de.noack.commitlog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * This class cuts an uploaded file into chunks, which are published as messages of their own. A chunk ends with the last line break within the
+ * chunk size, so that no line is split between two messages. Only a line which is longer than a whole chunk is cut at the chunk size. The file is
+ * read while the chunks are taken, so that at most one chunk of it is held in memory.
+ *
+ * @author davidnoack
+ */
+public class LineChunker {
+    public static final int CHUNK_BYTES = 1024 * 1024;
+    private final InputStream inputStream;
+    private final byte[] buffer;
+    private int length;
+    private boolean isEndOfStream;
+
+    public LineChunker(final InputStream inputStream, final int chunkBytes) {
+        this.inputStream = inputStream;
+        this.buffer = new byte[chunkBytes];
+    }
+
+    /**
+     * Returns the next chunk of the file or null, if the file has been read completely.
+     */
+    public byte[] next() throws IOException {
+        while (!isEndOfStream && length < buffer.length) {
+            final int readBytes = inputStream.read(buffer, length, buffer.length - length);
+            if (readBytes < 0) isEndOfStream = true;
+            else length += readBytes;
+        }
+        if (length == 0) return null;
+        int chunkLength = length;
+        if (!isEndOfStream) {
+            // The remainder behind the last line break is kept for the next chunk
+            for (int position = length - 1; position >= 0; position--) {
+                if (buffer[position] == '\n') {
+                    chunkLength = position + 1;
+                    break;
+                }
+            }
+        }
+        final byte[] chunk = Arrays.copyOf(buffer, chunkLength);
+        System.arraycopy(buffer, chunkLength, buffer, 0, length - chunkLength);
+        length -= chunkLength;
+        return chunk;
+    }
+}
@@ -0,0 +1,24 @@
+package de.noack.commitlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * This interface represents a reader of a {@link Topic}, which hands out one record after the other and follows the tail of the topic. A reader
+ * never acknowledges records, so that any number of readers may read a topic independently of its subscriptions. An instance must not be accessed
+ * by multiple threads concurrently.
+ *
+ * @author davidnoack
+ */
+public interface LogReader<V> extends Closeable {
+    /**
+     * Returns the record following the previous one, or null if none has been produced within the given time.
+     */
+    LogRecord<V> next(final long timeoutMillis) throws IOException;
+
+    /**
+     * Returns the position of the reader after the records handed out so far, which {@link Topic#follow(byte[])} continues reading from. It
+     * covers all partitions of the topic, unlike the {@link Position} of a single record.
+     */
+    byte[] checkpoint();
+}
@@ -0,0 +1,36 @@
+package de.noack.commitlog;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * This class represents a record read from a {@link Topic} together with its {@link Position} and properties, e.g. the index of a chunk. The
+ * properties are carried as message properties on Apache Pulsar and as headers on Apache Kafka. The value is decoded on every call of
+ * {@link #getValue()}, so that a record which cannot be decoded fails its handler only instead of the reader it has been read with.
+ *
+ * @author davidnoack
+ */
+@Value
+public class LogRecord<V> {
+    Position position;
+    String key;
+    @Getter(AccessLevel.NONE)
+    Supplier<V> decoder;
+    Map<String, String> properties;
+
+    public V getValue() {
+        return decoder.get();
+    }
+
+    public boolean hasProperty(final String name) {
+        return properties.containsKey(name);
+    }
+
+    public String getProperty(final String name) {
+        return properties.get(name);
+    }
+}
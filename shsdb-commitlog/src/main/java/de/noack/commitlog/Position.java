@@ -0,0 +1,12 @@
+package de.noack.commitlog;
+
+/**
+ * This interface represents the position of a record within a {@link Topic}, e.g. a message ID or an offset. Positions of the same partition of a
+ * topic are ordered like their records. A position is handed out as bytes, e.g. within a continuation token or a trailer of a chunked file, and
+ * read back with {@link Topic#positionOf(byte[])}.
+ *
+ * @author davidnoack
+ */
+public interface Position extends Comparable<Position> {
+    byte[] toByteArray();
+}
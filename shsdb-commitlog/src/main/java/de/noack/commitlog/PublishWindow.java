@@ -0,0 +1,69 @@
+package de.noack.commitlog;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * This class represents a window of records which have been produced asynchronously, but not yet persisted. The number of records within the
+ * window is bounded, so that producing blocks while the window is full instead of queueing the records of a whole file. A consumer of a
+ * {@link Subscription} awaits the completion of the window before committing the records it has derived them from.
+ *
+ * @author davidnoack
+ */
+public class PublishWindow {
+    private final int maxInFlightRecords;
+    private final Semaphore inFlightRecords;
+    private final AtomicReference<Throwable> sendFailure = new AtomicReference<>();
+
+    public PublishWindow(final int maxInFlightRecords) {
+        this.maxInFlightRecords = maxInFlightRecords;
+        this.inFlightRecords = new Semaphore(maxInFlightRecords);
+    }
+
+    public boolean hasFailed() {
+        return sendFailure.get() != null;
+    }
+
+    /**
+     * Produces a record to the given topic and passes its position to the given consumer once it has been persisted. A record which could not even
+     * be handed to the topic, or whose consumer fails, fails the window just like a record which could not be persisted.
+     */
+    public <V> void publish(final Topic<V> topic, final String key, final String orderingKey, final V value, final Map<String, String> properties,
+                            final Consumer<Position> onPersisted) {
+        inFlightRecords.acquireUninterruptibly();
+        final CompletableFuture<Position> send;
+        try {
+            send = topic.produceAsync(key, orderingKey, value, properties);
+        } catch (final RuntimeException e) {
+            sendFailure.compareAndSet(null, e);
+            inFlightRecords.release();
+            return;
+        }
+        send.whenComplete((position, e) -> {
+            try {
+                if (e != null) sendFailure.compareAndSet(null, e);
+                else onPersisted.accept(position);
+            } catch (final RuntimeException callbackException) {
+                sendFailure.compareAndSet(null, callbackException);
+            } finally {
+                inFlightRecords.release();
+            }
+        });
+    }
+
+    /**
+     * Waits until all records of the window have been persisted and throws an exception if any of them could not be.
+     */
+    public void awaitCompletion(final Topic<?>... topics) throws IOException {
+        for (final Topic<?> topic : topics) {
+            topic.flush();
+        }
+        inFlightRecords.acquireUninterruptibly(maxInFlightRecords);
+        inFlightRecords.release(maxInFlightRecords);
+        if (sendFailure.get() != null) throw new IOException("Records could not be published", sendFailure.get());
+    }
+}
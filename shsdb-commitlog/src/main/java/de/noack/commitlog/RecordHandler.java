@@ -0,0 +1,11 @@
+package de.noack.commitlog;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface RecordHandler<V> {
+    /**
+     * Handles one record and returns whether the following records are to be handed over as well.
+     */
+    boolean handle(final LogRecord<V> record) throws IOException;
+}
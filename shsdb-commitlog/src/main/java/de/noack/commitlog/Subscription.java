@@ -0,0 +1,29 @@
+package de.noack.commitlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * This interface represents a named consumer of a {@link Topic} with at-least-once delivery. Polled records are delivered again after a
+ * {@link #rewind()} or a restart unless they have been committed. An instance must not be accessed by multiple threads concurrently, see
+ * {@link ConsumerLoop} for a consumer which stops on demand.
+ *
+ * @author davidnoack
+ */
+public interface Subscription<V> extends Closeable {
+    /**
+     * Returns up to the given number of records following the previously polled ones. Waits for the given time at most if there are none.
+     */
+    List<LogRecord<V>> poll(final int maxRecords, final long timeoutMillis) throws IOException;
+
+    /**
+     * Acknowledges all records polled so far.
+     */
+    void commit() throws IOException;
+
+    /**
+     * Delivers all records polled since the last commit once more with the following polls.
+     */
+    void rewind() throws IOException;
+}
@@ -0,0 +1,42 @@
+package de.noack.commitlog;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * This class represents how the records of a {@link Topic} are distributed among the instances consuming one {@link Subscription}. A shared
+ * subscription hands each record to any one of its consumers. A sliced subscription hands the records of an ordering key always to the same
+ * instance, so that two topics with the same ordering keys, e.g. the ISIN, are consumed by the same instance for each key. A durable subscription
+ * continues with the first record which has not been committed after a restart, any other one starts at the beginning of the topic.
+ *
+ * @author davidnoack
+ */
+@Value
+@AllArgsConstructor(access = PRIVATE)
+public class SubscriptionOptions {
+    private static final SubscriptionOptions SHARED = new SubscriptionOptions(true, 0, 0);
+    boolean durable;
+    int instanceIndex;
+    int instanceCount;
+
+    public static SubscriptionOptions shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the options of the given slice of the ordering keys. Every instance has to be started with the same instance count, as the records of
+     * a slice without any consumer are not delivered at all.
+     */
+    public static SubscriptionOptions sliced(final int instanceIndex, final int instanceCount, final boolean isDurable) {
+        if (instanceIndex < 0 || instanceIndex >= instanceCount) {
+            throw new IllegalArgumentException("Instance index " + instanceIndex + " is not within the instance count " + instanceCount);
+        }
+        return new SubscriptionOptions(isDurable, instanceIndex, instanceCount);
+    }
+
+    public boolean isSliced() {
+        return instanceCount > 0;
+    }
+}
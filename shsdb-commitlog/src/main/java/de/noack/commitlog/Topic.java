@@ -0,0 +1,93 @@
+package de.noack.commitlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * This interface represents a topic of a commit log, independent of its technology. It is the single abstraction the services are built on: records
+ * are produced with a key, an optional ordering key and properties, consumed by a {@link Subscription}, read from a {@link Position} on by a
+ * {@link LogReader} and looked up by their position or key. Reads which end at the last record of the topic see all records produced before the
+ * read started, including those of this process. Instances are safe for use by multiple threads.
+ *
+ * @author davidnoack
+ */
+public interface Topic<V> extends Closeable {
+    String getName();
+
+    /**
+     * Appends a record to the topic. The returned future completes with the position of the record once it has been persisted. Blocks while too
+     * many records of this topic are pending, so that a fast producer cannot run out of memory.
+     *
+     * @param orderingKey the key which places the record, e.g. the ISIN of a security, or null to place it by its key
+     */
+    CompletableFuture<Position> produceAsync(final String key, final String orderingKey, final V value, final Map<String, String> properties);
+
+    /**
+     * Appends a record to the topic and returns its position once it has been persisted.
+     */
+    default Position produce(final String key, final V value, final Map<String, String> properties) throws IOException {
+        try {
+            return produceAsync(key, null, value, properties).get();
+        } catch (final ExecutionException e) {
+            throw new IOException("Cannot publish record " + key + " to the topic " + getName(), e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while publishing record " + key + " to the topic " + getName());
+        }
+    }
+
+    default Position produce(final String key, final V value) throws IOException {
+        return produce(key, value, Collections.emptyMap());
+    }
+
+    /**
+     * Sends all pending records without waiting for the linger time of their batch.
+     */
+    void flush() throws IOException;
+
+    Subscription<V> subscribe(final String subscriptionName, final SubscriptionOptions options) throws IOException;
+
+    /**
+     * Returns a reader which starts with the record at the given position and continues with the following records of the same partition, e.g.
+     * to collect the chunks of a file.
+     */
+    LogReader<V> readFrom(final Position position) throws IOException;
+
+    /**
+     * Returns a reader of all partitions which continues after the given checkpoint of a previous reader, or starts at the beginning of the topic
+     * if there is none. Throws an {@link IllegalArgumentException} if the checkpoint has not been taken from this topic.
+     */
+    LogReader<V> follow(final byte[] checkpoint) throws IOException;
+
+    /**
+     * Passes the records following the given position up to the last record of the topic to the handler, until the handler returns false. A
+     * position of null starts at the beginning of the topic. The partitions of a topic are read one after the other.
+     */
+    void forEachAfter(final Position position, final RecordHandler<V> handler) throws IOException;
+
+    default void forEach(final RecordHandler<V> handler) throws IOException {
+        forEachAfter(null, handler);
+    }
+
+    /**
+     * Returns the record at the given position or null if it does not exist (anymore), e.g. because it has been compacted.
+     */
+    LogRecord<V> read(final Position position) throws IOException;
+
+    /**
+     * Returns the latest record with the given key or null if there is none. Keys are indexed for topics of the type {@link TopicType#FILES}
+     * only.
+     */
+    LogRecord<V> latest(final String key) throws IOException;
+
+    /**
+     * Returns the position of the given bytes, e.g. of a continuation token. Throws an {@link IllegalArgumentException} for bytes which do not
+     * denote the position of a record of this topic, so that a forged or outdated token is never read.
+     */
+    Position positionOf(final byte[] bytes);
+}
@@ -0,0 +1,24 @@
+package de.noack.commitlog;
+
+/**
+ * This enum represents the kinds of topics of the application. The type of a topic determines its configuration, e.g. its partitions and
+ * retention on Apache Kafka or the batching of its producer on Apache Pulsar, so that the services do not depend on the commit log technology.
+ *
+ * @author davidnoack
+ */
+public enum TopicType {
+    /**
+     * Uploaded files, which are published in chunks by a {@link FileTopic}. Records are kept forever, are up to a few megabytes large and are
+     * produced one after the other. The latest record of each key is indexed, so that a file is found by {@link Topic#latest(String)}.
+     */
+    FILES,
+    /**
+     * Small records, which are produced in batches. Only the latest record of each key is kept on a broker supporting compaction. Records are
+     * placed by their ordering key, so that all topics of this type are co-partitioned by it.
+     */
+    COMPACTED_RECORDS,
+    /**
+     * Small records, which are produced in batches and kept forever, e.g. the rejected rows of a file, which share the key of their file.
+     */
+    RECORDS
+}
@@ -0,0 +1,27 @@
+package de.noack.commitlog;
+
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.impl.schema.JSONSchema;
+
+/**
+ * This enum represents the possible encodings of records on the transformed topics. The chosen encoding depends on the value set in the
+ * application.properties file and has to be the same for all services sharing a topic.
+ *
+ * @author davidnoack
+ */
+public enum WireFormat {
+    JSON {
+        @Override
+        public <T> Schema<T> schemaOf(final Class<T> type) {
+            return JSONSchema.of(type);
+        }
+    },
+    BINARY {
+        @Override
+        public <T> Schema<T> schemaOf(final Class<T> type) {
+            return BinarySchema.of(type);
+        }
+    };
+
+    public abstract <T> Schema<T> schemaOf(final Class<T> type);
+}
@@ -0,0 +1,38 @@
+package de.noack.commitlog.kafka;
+
+import de.noack.commitlog.CommitLogClient;
+import de.noack.commitlog.Topic;
+import de.noack.commitlog.TopicType;
+import org.apache.pulsar.client.api.Schema;
+
+import java.io.IOException;
+
+/**
+ * This class represents the connection to an Apache Kafka cluster. Unlike Pulsar, Kafka keeps no connection which is shared by producers and
+ * consumers, so that every topic connects its own ones to the bootstrap servers.
+ *
+ * @author davidnoack
+ */
+public class KafkaCommitLogClient implements CommitLogClient {
+    private final String bootstrapServers;
+
+    public KafkaCommitLogClient(final String bootstrapServers) {
+        this.bootstrapServers = bootstrapServers;
+    }
+
+    @Override
+    public <V> Topic<V> openTopic(final String name, final TopicType type, final Schema<V> schema) throws IOException {
+        final KafkaTopic<V> topic = new KafkaTopic<>(bootstrapServers, name, type, schema);
+        try {
+            topic.start();
+        } catch (final IOException | RuntimeException e) {
+            topic.close();
+            throw e;
+        }
+        return topic;
+    }
+
+    @Override
+    public void close() {
+    }
+}
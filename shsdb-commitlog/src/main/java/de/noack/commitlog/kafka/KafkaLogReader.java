@@ -0,0 +1,58 @@
+package de.noack.commitlog.kafka;
+
+import de.noack.commitlog.LogReader;
+import de.noack.commitlog.LogRecord;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * This class represents a {@link LogReader} of a Kafka topic. Its consumer is assigned to the partitions to read directly instead of joining a
+ * consumer group, so that it never commits offsets. The checkpoint consists of the next offset of every partition.
+ *
+ * @author davidnoack
+ */
+class KafkaLogReader<V> implements LogReader<V> {
+    private final Consumer<String, byte[]> consumer;
+    private final KafkaTopic<V> topic;
+    private final Map<Integer, Long> nextOffsets = new TreeMap<>();
+    private Iterator<ConsumerRecord<String, byte[]>> polledRecords = Collections.emptyIterator();
+
+    KafkaLogReader(final Consumer<String, byte[]> consumer, final KafkaTopic<V> topic, final Map<TopicPartition, Long> offsets) {
+        this.consumer = consumer;
+        this.topic = topic;
+        consumer.assign(offsets.keySet());
+        // Records before the beginning offset might have been removed by retention or compaction
+        final Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(offsets.keySet());
+        offsets.forEach((partition, offset) -> {
+            final long startOffset = Math.max(offset, beginningOffsets.get(partition));
+            consumer.seek(partition, startOffset);
+            nextOffsets.put(partition.partition(), startOffset);
+        });
+    }
+
+    @Override
+    public LogRecord<V> next(final long timeoutMillis) {
+        if (!polledRecords.hasNext()) polledRecords = consumer.poll(Duration.ofMillis(timeoutMillis)).iterator();
+        if (!polledRecords.hasNext()) return null;
+        final ConsumerRecord<String, byte[]> record = polledRecords.next();
+        nextOffsets.put(record.partition(), record.offset() + 1);
+        return topic.recordOf(record);
+    }
+
+    @Override
+    public byte[] checkpoint() {
+        final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + nextOffsets.size() * KafkaPosition.BYTES).putInt(nextOffsets.size());
+        nextOffsets.forEach((partition, offset) -> buffer.putInt(partition).putLong(offset));
+        return buffer.array();
+    }
+
+    @Override
+    public void close() {
+        consumer.close();
+    }
+}
@@ -0,0 +1,32 @@
+package de.noack.commitlog.kafka;
+
+import de.noack.commitlog.Position;
+import lombok.Value;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+/**
+ * This class represents the position of a record within a Kafka topic, which is its partition and offset. Positions are ordered by partition
+ * first, so that the partitions of a topic are read one after the other.
+ *
+ * @author davidnoack
+ */
+@Value
+public class KafkaPosition implements Position {
+    static final int BYTES = Integer.BYTES + Long.BYTES;
+    private static final Comparator<KafkaPosition> ORDER = Comparator.comparingInt(KafkaPosition::getPartition)
+            .thenComparingLong(KafkaPosition::getOffset);
+    int partition;
+    long offset;
+
+    @Override
+    public byte[] toByteArray() {
+        return ByteBuffer.allocate(BYTES).putInt(partition).putLong(offset).array();
+    }
+
+    @Override
+    public int compareTo(final Position position) {
+        return ORDER.compare(this, (KafkaPosition) position);
+    }
+}
@@ -0,0 +1,115 @@
+package de.noack.commitlog.kafka;
+
+import de.noack.commitlog.LogRecord;
+import de.noack.commitlog.Subscription;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * This class represents a {@link Subscription} of a Kafka topic with one {@link Consumer}. A shared subscription joins the consumer group of its
+ * name, a sliced one is assigned to its partitions directly. Committed records are committed as the offsets following the polled records of each
+ * partition. Rewound records are read again by seeking to the first offset which has not been committed, as Kafka does not redeliver single
+ * records.
+ *
+ * @author davidnoack
+ */
+class KafkaSubscription<V> implements Subscription<V> {
+    private final Consumer<String, byte[]> consumer;
+    private final KafkaTopic<V> topic;
+    private final boolean isDurable;
+    // The records which have been fetched by a previous poll, but have not been handed out because of the maximum number of records
+    private final Deque<ConsumerRecord<String, byte[]>> bufferedRecords = new ArrayDeque<>();
+    // The offset of the first record handed out since the last commit and the offset following the last one, per partition
+    private final Map<TopicPartition, Long> firstPolledOffsets = new HashMap<>();
+    private final Map<TopicPartition, Long> nextPolledOffsets = new HashMap<>();
+
+    KafkaSubscription(final Consumer<String, byte[]> consumer, final KafkaTopic<V> topic, final boolean isDurable) {
+        this.consumer = consumer;
+        this.topic = topic;
+        this.isDurable = isDurable;
+    }
+
+    void subscribe(final String topicName) {
+        consumer.subscribe(Collections.singletonList(topicName), new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(final Collection<TopicPartition> partitions) {
+                // Records of revoked partitions are delivered to their new owner, which continues after the committed offset
+                bufferedRecords.removeIf(record -> partitions.contains(new TopicPartition(record.topic(), record.partition())));
+                firstPolledOffsets.keySet().removeAll(partitions);
+                nextPolledOffsets.keySet().removeAll(partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(final Collection<TopicPartition> partitions) {
+            }
+        });
+    }
+
+    void assign(final List<TopicPartition> partitions, final boolean isDurable) {
+        consumer.assign(partitions);
+        // A durable slice continues after its committed offsets, any other one is read from the beginning
+        if (!isDurable) consumer.seekToBeginning(partitions);
+    }
+
+    @Override
+    public List<LogRecord<V>> poll(final int maxRecords, final long timeoutMillis) throws IOException {
+        if (bufferedRecords.isEmpty()) {
+            try {
+                consumer.poll(Duration.ofMillis(timeoutMillis)).forEach(bufferedRecords::add);
+            } catch (final KafkaException e) {
+                throw new IOException("Cannot poll the topic " + topic.getName(), e);
+            }
+        }
+        final List<LogRecord<V>> records = new ArrayList<>();
+        while (records.size() < maxRecords && !bufferedRecords.isEmpty()) {
+            final ConsumerRecord<String, byte[]> record = bufferedRecords.poll();
+            final TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            firstPolledOffsets.putIfAbsent(partition, record.offset());
+            nextPolledOffsets.put(partition, record.offset() + 1);
+            records.add(topic.recordOf(record));
+        }
+        return records;
+    }
+
+    @Override
+    public void commit() throws IOException {
+        if (isDurable && !nextPolledOffsets.isEmpty()) {
+            final Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            nextPolledOffsets.forEach((partition, offset) -> offsets.put(partition, new OffsetAndMetadata(offset)));
+            try {
+                consumer.commitSync(offsets);
+            } catch (final KafkaException e) {
+                throw new IOException("Cannot commit offsets of the topic " + topic.getName(), e);
+            }
+        }
+        firstPolledOffsets.clear();
+        nextPolledOffsets.clear();
+    }
+
+    @Override
+    public void rewind() {
+        final Map<TopicPartition, Long> rewindOffsets = new HashMap<>();
+        for (final ConsumerRecord<String, byte[]> record : bufferedRecords) {
+            rewindOffsets.putIfAbsent(new TopicPartition(record.topic(), record.partition()), record.offset());
+        }
+        // Records which have been handed out precede the buffered records of their partition
+        rewindOffsets.putAll(firstPolledOffsets);
+        rewindOffsets.forEach(consumer::seek);
+        bufferedRecords.clear();
+        firstPolledOffsets.clear();
+        nextPolledOffsets.clear();
+    }
+
+    @Override
+    public void close() {
+        consumer.close();
+    }
+}
@@ -0,0 +1,292 @@
+package de.noack.commitlog.kafka;
+
+import de.noack.commitlog.*;
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.pulsar.client.api.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.*;
+import static org.apache.kafka.clients.producer.ProducerConfig.*;
+
+/**
+ * This class represents a {@link Topic} of Apache Kafka. The topic is created on start with the partitions and retention of its type. Records are
+ * produced by one long-lived idempotent {@link Producer} and queried with a {@link TopicReader}. Records with an ordering key are placed in the
+ * partition of their ordering key, so that all topics with ordering keys are co-partitioned, and a sliced subscription owns a fixed set of these
+ * partitions. Properties of records are carried as headers.
+ *
+ * @author davidnoack
+ */
+public class KafkaTopic<V> implements Topic<V> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(KafkaTopic.class);
+    private static final int PARTITIONS = 8;
+    private static final short REPLICATION_FACTOR = 1;
+    private static final int MAX_FILE_MESSAGE_BYTES = 64 * 1024 * 1024;
+    private static final int MAX_PENDING_CHUNKS = 16;
+    private static final int LINGER_MILLIS = 20;
+    private static final int BATCH_BYTES = 256 * 1024;
+    private final String bootstrapServers;
+    private final String pulsarTopicName;
+    private final String name;
+    private final TopicType type;
+    private final Schema<V> schema;
+    // The latest position of each key, which is only maintained for files
+    private final Map<String, KafkaPosition> latestPositions = new ConcurrentHashMap<>();
+    private Producer<String, V> producer;
+    private TopicReader<byte[]> reader;
+    private int partitions;
+
+    KafkaTopic(final String bootstrapServers, final String pulsarTopicName, final TopicType type, final Schema<V> schema) {
+        this.bootstrapServers = bootstrapServers;
+        this.pulsarTopicName = pulsarTopicName;
+        this.name = KafkaTopics.nameOf(pulsarTopicName);
+        this.type = type;
+        this.schema = schema;
+    }
+
+    void start() throws IOException {
+        try {
+            KafkaTopics.createIfAbsent(bootstrapServers, newTopic());
+        } catch (final ExecutionException e) {
+            throw new IOException("Cannot create the topic " + name, e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while creating the topic " + name);
+        }
+        final Properties props = new Properties();
+        props.put(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ACKS_CONFIG, "all");
+        // Retried batches are not duplicated and keep their order
+        props.put(ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(COMPRESSION_TYPE_CONFIG, "lz4");
+        if (type == TopicType.FILES) {
+            props.put(MAX_REQUEST_SIZE_CONFIG, 2 * LineChunker.CHUNK_BYTES);
+            // Uploads wait for persisted chunks instead of buffering the whole file
+            props.put(BUFFER_MEMORY_CONFIG, (long) MAX_PENDING_CHUNKS * LineChunker.CHUNK_BYTES);
+        } else {
+            props.put(LINGER_MS_CONFIG, LINGER_MILLIS);
+            props.put(BATCH_SIZE_CONFIG, BATCH_BYTES);
+        }
+        producer = new KafkaProducer<>(props, new StringSerializer(), new SchemaSerde<>(schema));
+        reader = new TopicReader<>(bootstrapServers, name, new ByteArrayDeserializer());
+        partitions = producer.partitionsFor(name).size();
+        LOGGER.info("Created producer for the topic {} with {} partitions", name, partitions);
+        if (type == TopicType.FILES) {
+            synchronized (reader) {
+                reader.forEach(record -> {
+                    latestPositions.merge(record.key(), positionOf(record), KafkaTopic::later);
+                    return true;
+                });
+            }
+            LOGGER.info("Indexed {} keys of the topic {}", latestPositions.size(), name);
+        }
+    }
+
+    private NewTopic newTopic() {
+        final Map<String, String> configs = new HashMap<>();
+        switch (type) {
+            case FILES:
+                configs.put(TopicConfig.RETENTION_MS_CONFIG, "-1");
+                configs.put(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(MAX_FILE_MESSAGE_BYTES));
+                return new NewTopic(name, PARTITIONS, REPLICATION_FACTOR).configs(configs);
+            case COMPACTED_RECORDS:
+                configs.put(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT);
+                return new NewTopic(name, KafkaTopics.TRANSFORMED_PARTITIONS, REPLICATION_FACTOR).configs(configs);
+            default:
+                configs.put(TopicConfig.RETENTION_MS_CONFIG, "-1");
+                return new NewTopic(name, PARTITIONS, REPLICATION_FACTOR).configs(configs);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return pulsarTopicName;
+    }
+
+    @Override
+    public CompletableFuture<Position> produceAsync(final String key, final String orderingKey, final V value,
+                                                    final Map<String, String> properties) {
+        final ProducerRecord<String, V> record = new ProducerRecord<>(name, orderingKey != null ? KafkaTopics.partitionOf(orderingKey) : null, key,
+                value);
+        properties.forEach((property, propertyValue) -> record.headers().add(property, propertyValue.getBytes(UTF_8)));
+        final CompletableFuture<Position> position = new CompletableFuture<>();
+        try {
+            producer.send(record, (metadata, e) -> {
+                if (e != null) {
+                    position.completeExceptionally(e);
+                    return;
+                }
+                final KafkaPosition recordPosition = new KafkaPosition(metadata.partition(), metadata.offset());
+                // The record is visible to queries at once, before a later scan might have read it
+                if (type == TopicType.FILES) latestPositions.merge(key, recordPosition, KafkaTopic::later);
+                position.complete(recordPosition);
+            });
+        } catch (final RuntimeException e) {
+            position.completeExceptionally(e);
+        }
+        return position;
+    }
+
+    private static KafkaPosition later(final KafkaPosition position, final KafkaPosition otherPosition) {
+        return position.getPartition() == otherPosition.getPartition() && position.getOffset() > otherPosition.getOffset() ? position :
+                otherPosition;
+    }
+
+    @Override
+    public void flush() {
+        producer.flush();
+    }
+
+    @Override
+    public Subscription<V> subscribe(final String subscriptionName, final SubscriptionOptions options) {
+        final Properties props = consumerProperties();
+        // Chunks are up to a megabyte large, so that only a few of them are fetched at once
+        props.put(MAX_POLL_RECORDS_CONFIG, type == TopicType.FILES ? MAX_PENDING_CHUNKS : 1000);
+        if (type == TopicType.FILES) props.put(FETCH_MAX_BYTES_CONFIG, MAX_FILE_MESSAGE_BYTES);
+        // A subscription which is read from the beginning on every start has no consumer group, so that no offsets are committed for it
+        if (!options.isSliced() || options.isDurable()) props.put(GROUP_ID_CONFIG, subscriptionName);
+        final KafkaSubscription<V> subscription = new KafkaSubscription<>(new KafkaConsumer<>(props, new StringDeserializer(),
+                new ByteArrayDeserializer()), this, options.isDurable() || !options.isSliced());
+        if (options.isSliced()) {
+            final List<TopicPartition> slice = new ArrayList<>();
+            for (int partition = options.getInstanceIndex(); partition < partitions; partition += options.getInstanceCount()) {
+                slice.add(new TopicPartition(name, partition));
+            }
+            subscription.assign(slice, options.isDurable());
+        } else {
+            subscription.subscribe(name);
+        }
+        LOGGER.info("Created consumer for the topic {}", name);
+        return subscription;
+    }
+
+    Properties consumerProperties() {
+        final Properties props = new Properties();
+        props.put(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ENABLE_AUTO_COMMIT_CONFIG, "false");
+        props.put(AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return props;
+    }
+
+    @Override
+    public LogReader<V> readFrom(final Position position) {
+        final KafkaPosition kafkaPosition = (KafkaPosition) position;
+        return newReader(Collections.singletonMap(new TopicPartition(name, kafkaPosition.getPartition()), kafkaPosition.getOffset()));
+    }
+
+    @Override
+    public LogReader<V> follow(final byte[] checkpoint) {
+        final Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            offsets.put(new TopicPartition(name, partition), 0L);
+        }
+        if (checkpoint != null) {
+            final ByteBuffer buffer = ByteBuffer.wrap(checkpoint);
+            try {
+                final int checkpointPartitions = buffer.getInt();
+                if (checkpointPartitions != partitions || buffer.remaining() != checkpointPartitions * KafkaPosition.BYTES) {
+                    throw new IllegalArgumentException("Checkpoint does not cover the " + partitions + " partitions of the topic " + name);
+                }
+                for (int i = 0; i < checkpointPartitions; i++) {
+                    final int partition = buffer.getInt();
+                    final long offset = buffer.getLong();
+                    if (partition < 0 || partition >= partitions || offset < 0) {
+                        throw new IllegalArgumentException("Checkpoint is not a position of the topic " + name);
+                    }
+                    offsets.put(new TopicPartition(name, partition), offset);
+                }
+            } catch (final RuntimeException e) {
+                if (e instanceof IllegalArgumentException) throw e;
+                throw new IllegalArgumentException("Checkpoint is not a position of the topic " + name, e);
+            }
+        }
+        LOGGER.info("Created reader for the topic {}", name);
+        return newReader(offsets);
+    }
+
+    private LogReader<V> newReader(final Map<TopicPartition, Long> offsets) {
+        return new KafkaLogReader<>(new KafkaConsumer<>(consumerProperties(), new StringDeserializer(), new ByteArrayDeserializer()), this,
+                offsets);
+    }
+
+    @Override
+    public void forEachAfter(final Position position, final RecordHandler<V> handler) throws IOException {
+        final KafkaPosition kafkaPosition = (KafkaPosition) position;
+        synchronized (reader) {
+            reader.forEachFrom(kafkaPosition != null ? kafkaPosition.getPartition() : 0, kafkaPosition != null ? kafkaPosition.getOffset() + 1 : 0,
+                    record -> handler.handle(recordOf(record)));
+        }
+    }
+
+    @Override
+    public LogRecord<V> read(final Position position) {
+        final KafkaPosition kafkaPosition = (KafkaPosition) position;
+        final ConsumerRecord<String, byte[]> record;
+        synchronized (reader) {
+            record = reader.read(kafkaPosition.getPartition(), kafkaPosition.getOffset());
+        }
+        return record != null ? recordOf(record) : null;
+    }
+
+    @Override
+    public LogRecord<V> latest(final String key) {
+        final KafkaPosition position = latestPositions.get(key);
+        if (position == null) return null;
+        final LogRecord<V> record = read(position);
+        return record != null && key.equals(record.getKey()) ? record : null;
+    }
+
+    @Override
+    public Position positionOf(final byte[] bytes) {
+        if (bytes == null || bytes.length != KafkaPosition.BYTES) {
+            throw new IllegalArgumentException("Bytes do not denote a position of the topic " + name);
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        final int partition = buffer.getInt();
+        final long offset = buffer.getLong();
+        if (partition < 0 || partition >= partitions || offset < 0) {
+            throw new IllegalArgumentException("Bytes do not denote a position of the topic " + name);
+        }
+        return new KafkaPosition(partition, offset);
+    }
+
+    private static KafkaPosition positionOf(final ConsumerRecord<?, ?> record) {
+        return new KafkaPosition(record.partition(), record.offset());
+    }
+
+    LogRecord<V> recordOf(final ConsumerRecord<String, byte[]> record) {
+        final Map<String, String> properties = new HashMap<>();
+        for (final Header header : record.headers()) {
+            properties.put(header.key(), new String(header.value(), UTF_8));
+        }
+        final byte[] value = record.value();
+        return new LogRecord<>(positionOf(record), record.key(), () -> value != null ? schema.decode(value) : null, properties);
+    }
+
+    @Override
+    public void close() {
+        if (producer != null) producer.close();
+        if (reader != null) reader.close();
+    }
+}
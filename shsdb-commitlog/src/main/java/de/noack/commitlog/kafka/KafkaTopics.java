@@ -0,0 +1,57 @@
+package de.noack.commitlog.kafka;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.kafka.clients.admin.AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG;
+
+/**
+ * This class contains the handling of Kafka topics. Topic names are derived from the Pulsar topic names, whose namespace separators are not allowed
+ * within Kafka topic names. Records with an ordering key, e.g. the ISIN of a security, are partitioned by it instead of their whole key.
+ *
+ * @author davidnoack
+ */
+public final class KafkaTopics {
+    /**
+     * The number of partitions of the topics with ordering keys. It has to be the same for all services, so that these topics are co-partitioned
+     * by their ordering key.
+     */
+    public static final int TRANSFORMED_PARTITIONS = 8;
+
+    private KafkaTopics() {
+    }
+
+    public static String nameOf(final String pulsarTopicName) {
+        return pulsarTopicName.replace('/', '.');
+    }
+
+    /**
+     * Returns the partition for the given ordering key. Records of the same ordering key are placed in partitions with the same number on all
+     * topics, so that a consumer of these partitions sees e.g. reports and CSDB data of a security together.
+     */
+    public static int partitionOf(final String orderingKey) {
+        return Utils.toPositive(Utils.murmur2(orderingKey.getBytes(UTF_8))) % TRANSFORMED_PARTITIONS;
+    }
+
+    /**
+     * Creates the given topics with their configuration unless they exist already. Existing topics are left unchanged.
+     */
+    public static void createIfAbsent(final String bootstrapServers, final NewTopic... topics) throws InterruptedException, ExecutionException {
+        try (final AdminClient adminClient = AdminClient.create(Collections.singletonMap(BOOTSTRAP_SERVERS_CONFIG, bootstrapServers))) {
+            for (final NewTopic topic : Arrays.asList(topics)) {
+                try {
+                    adminClient.createTopics(Collections.singletonList(topic)).all().get();
+                } catch (final ExecutionException e) {
+                    if (!(e.getCause() instanceof TopicExistsException)) throw e;
+                }
+            }
+        }
+    }
+}
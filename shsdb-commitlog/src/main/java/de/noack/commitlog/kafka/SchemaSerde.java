@@ -0,0 +1,52 @@
+package de.noack.commitlog.kafka;
+
+import de.noack.commitlog.WireFormat;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.api.SchemaSerializationException;
+
+import java.util.Map;
+
+/**
+ * This class adapts a {@link Schema}, e.g. the one of a {@link WireFormat}, to Kafka, so that records on a Kafka topic are encoded exactly the same
+ * way as on the corresponding Pulsar topic.
+ *
+ * @author davidnoack
+ */
+public final class SchemaSerde<T> implements Serializer<T>, Deserializer<T> {
+    private final Schema<T> schema;
+
+    public SchemaSerde(final Schema<T> schema) {
+        this.schema = schema;
+    }
+
+    @Override
+    public byte[] serialize(final String topic, final T data) {
+        if (data == null) return null;
+        try {
+            return schema.encode(data);
+        } catch (final SchemaSerializationException e) {
+            throw new SerializationException("Cannot serialize record for topic " + topic, e);
+        }
+    }
+
+    @Override
+    public T deserialize(final String topic, final byte[] data) {
+        if (data == null) return null;
+        try {
+            return schema.decode(data);
+        } catch (final SchemaSerializationException e) {
+            throw new SerializationException("Cannot deserialize record of topic " + topic, e);
+        }
+    }
+
+    @Override
+    public void configure(final Map<String, ?> configs, final boolean isKey) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,121 @@
+package de.noack.commitlog.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.apache.kafka.clients.consumer.ConsumerConfig.*;
+
+/**
+ * This class represents a reader of a Kafka topic which is used to query produced records, similar to a
+ * {@link de.noack.commitlog.pulsar.TopicCursor}. It is assigned to all partitions of its topic directly instead of joining a consumer group and
+ * never commits offsets. Reading a topic ends with the last record which has been written before the read started. An instance must not be
+ * accessed by multiple threads concurrently.
+ *
+ * @author davidnoack
+ */
+public final class TopicReader<V> implements Closeable {
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final int MAX_EMPTY_POLLS = 5;
+    private final Consumer<String, V> consumer;
+    private final String topic;
+    private final List<TopicPartition> partitions;
+
+    public TopicReader(final String bootstrapServers, final String topic, final Deserializer<V> valueDeserializer) {
+        final Properties props = new Properties();
+        props.put(BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ENABLE_AUTO_COMMIT_CONFIG, "false");
+        props.put(MAX_POLL_RECORDS_CONFIG, 1000);
+        this.consumer = new KafkaConsumer<>(props, new StringDeserializer(), valueDeserializer);
+        this.topic = topic;
+        this.partitions = consumer.partitionsFor(topic).stream()
+                .map(partitionInfo -> new TopicPartition(topic, partitionInfo.partition()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Hands over the records of all partitions from their beginning until the handler returns false. The order of records is kept per partition.
+     */
+    public void forEach(final RecordHandler<V> handler) throws IOException {
+        consumer.assign(partitions);
+        consumer.seekToBeginning(partitions);
+        final Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        final Set<TopicPartition> remainingPartitions = new HashSet<>(partitions);
+        int emptyPolls = 0;
+        while (true) {
+            remainingPartitions.removeIf(partition -> consumer.position(partition) >= endOffsets.get(partition));
+            if (remainingPartitions.isEmpty() || emptyPolls == MAX_EMPTY_POLLS) return;
+            final ConsumerRecords<String, V> records = consumer.poll(POLL_TIMEOUT);
+            emptyPolls = records.isEmpty() ? emptyPolls + 1 : 0;
+            for (final ConsumerRecord<String, V> record : records) {
+                final TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                // Records which have been written after the read started are skipped
+                if (record.offset() < endOffsets.get(partition) && !handler.handle(record)) return;
+            }
+        }
+    }
+
+    /**
+     * Hands over the records from the given position on until the handler returns false. The partitions are read one after the other in ascending
+     * order, the given offset applies to the given partition, following partitions are read from their beginning. Records which have been written
+     * after the read started are skipped, so that consecutive reads can continue at the position after their last record.
+     */
+    public void forEachFrom(final int fromPartition, final long fromOffset, final RecordHandler<V> handler) throws IOException {
+        final Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        final List<TopicPartition> remainingPartitions = partitions.stream()
+                .filter(partition -> partition.partition() >= fromPartition)
+                .sorted(Comparator.comparingInt(TopicPartition::partition))
+                .collect(Collectors.toList());
+        for (final TopicPartition partition : remainingPartitions) {
+            consumer.assign(Collections.singletonList(partition));
+            // Records before the beginning offset might have been removed by retention or compaction
+            final long beginningOffset = consumer.beginningOffsets(Collections.singletonList(partition)).get(partition);
+            consumer.seek(partition, partition.partition() == fromPartition ? Math.max(fromOffset, beginningOffset) : beginningOffset);
+            int emptyPolls = 0;
+            while (consumer.position(partition) < endOffsets.get(partition) && emptyPolls < MAX_EMPTY_POLLS) {
+                final ConsumerRecords<String, V> records = consumer.poll(POLL_TIMEOUT);
+                emptyPolls = records.isEmpty() ? emptyPolls + 1 : 0;
+                for (final ConsumerRecord<String, V> record : records) {
+                    if (record.offset() < endOffsets.get(partition) && !handler.handle(record)) return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the record at the given position or null if it does not exist anymore, e.g. because it has been compacted.
+     */
+    public ConsumerRecord<String, V> read(final int partition, final long offset) {
+        final TopicPartition topicPartition = new TopicPartition(topic, partition);
+        consumer.assign(Collections.singletonList(topicPartition));
+        consumer.seek(topicPartition, offset);
+        for (int emptyPolls = 0; emptyPolls < MAX_EMPTY_POLLS; emptyPolls++) {
+            final Iterator<ConsumerRecord<String, V>> records = consumer.poll(POLL_TIMEOUT).iterator();
+            if (records.hasNext()) {
+                final ConsumerRecord<String, V> record = records.next();
+                return record.offset() == offset ? record : null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        consumer.close();
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler<V> {
+        boolean handle(final ConsumerRecord<String, V> record) throws IOException;
+    }
+}
@@ -0,0 +1,32 @@
+package de.noack.commitlog.memory;
+
+import de.noack.commitlog.CommitLogClient;
+import de.noack.commitlog.Topic;
+import de.noack.commitlog.TopicType;
+import org.apache.pulsar.client.api.Schema;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * This class represents the in-process commit log, whose topics are {@link MappedLog}s within a directory. The directory is shared by all
+ * services running on the same machine, so that no connection has to be kept.
+ *
+ * @author davidnoack
+ */
+public class MappedCommitLogClient implements CommitLogClient {
+    private final Path directory;
+
+    public MappedCommitLogClient(final Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public <V> Topic<V> openTopic(final String name, final TopicType type, final Schema<V> schema) throws IOException {
+        return new MappedTopic<>(new MappedLog(directory, name), name, schema);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,389 @@
+package de.noack.commitlog.memory;
+
+import lombok.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * This class represents a topic of the in-process commit log. Records are appended to memory-mapped segment files within a directory of their own,
+ * so that neither a broker nor a copy between processes is involved, while the records still survive a restart. A record is addressed by its
+ * offset, which is its position in bytes within the topic.
+ * <p>
+ * A topic is produced by one process only, which is ensured by a file lock, while any number of processes may read it at the same time. Readers of
+ * the producing process see a record as soon as it has been appended. Readers of other processes see it as soon as its frame length has been
+ * written, which happens last. A record is framed by the length of the frame, the length of its key, the UTF-8 encoded key, the number of its
+ * properties followed by their UTF-8 encoded names and values, and the encoded value. A frame length of zero marks the end of the topic, a negative
+ * one the end of a segment. The offset of one record per megabyte of the topic is kept, so that an offset handed in from outside, e.g. within a
+ * continuation token, is checked against the frames behind the nearest of them.
+ *
+ * @author davidnoack
+ */
+public final class MappedLog implements Closeable {
+    private static final int SEGMENT_BYTES = 256 * 1024 * 1024;
+    private static final int END_OF_SEGMENT = -1;
+    private static final long POLL_INTERVAL_MILLIS = 1;
+    private static final long FRAME_INDEX_INTERVAL_BYTES = 1024 * 1024;
+    private static final String WRITER_LOCK_FILE = "writer.lock";
+    private static final String OFFSET_FILE_SUFFIX = ".offset";
+    private final Path directory;
+    private final Object segmentLock = new Object();
+    private final Object appended = new Object();
+    private final Map<String, Long> latestOffsets = new HashMap<>();
+    private final NavigableSet<Long> frameIndex = new ConcurrentSkipListSet<>();
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private volatile long endOffset;
+    private long indexedOffset;
+    private FileChannel writerLockChannel;
+    private FileLock writerLock;
+
+    public MappedLog(final Path rootDirectory, final String topicName) throws IOException {
+        this.directory = Files.createDirectories(rootDirectory.resolve(topicName));
+        this.endOffset = scan(0);
+    }
+
+    /**
+     * Appends a record to the topic and returns its offset. The first call takes over the topic for this process.
+     */
+    public synchronized long produce(final String key, final byte[] value, final Map<String, String> properties) throws IOException {
+        if (writerLock == null) acquireWriterLock();
+        final byte[] keyBytes = key.getBytes(UTF_8);
+        final byte[] propertyBytes = bytesOf(properties);
+        final int frameLength = Integer.BYTES + keyBytes.length + propertyBytes.length + value.length;
+        if (frameLength > SEGMENT_BYTES - Integer.BYTES) throw new IOException("Record of " + frameLength + " bytes exceeds the segment size");
+        long offset = endOffset;
+        if (positionOf(offset) + Integer.BYTES + frameLength > SEGMENT_BYTES) {
+            // The next segment has to exist before readers are sent there
+            segment(segmentOf(offset) + 1, true);
+            if (positionOf(offset) <= SEGMENT_BYTES - Integer.BYTES) segment(segmentOf(offset), true).putInt(positionOf(offset), END_OF_SEGMENT);
+            offset = nextSegmentOffset(offset);
+        }
+        final MappedByteBuffer segment = segment(segmentOf(offset), true);
+        final ByteBuffer frame = segment.duplicate();
+        frame.position(positionOf(offset) + Integer.BYTES);
+        frame.putInt(keyBytes.length).put(keyBytes).put(propertyBytes).put(value);
+        // The frame length is written last, so that readers of other processes never see a partially written record
+        segment.putInt(positionOf(offset), frameLength);
+        indexFrame(offset);
+        endOffset = offset + Integer.BYTES + frameLength;
+        synchronized (appended) {
+            appended.notifyAll();
+        }
+        return offset;
+    }
+
+    private static byte[] bytesOf(final Map<String, String> properties) {
+        final List<byte[]> strings = new ArrayList<>(2 * properties.size());
+        int length = Integer.BYTES;
+        for (final Map.Entry<String, String> property : properties.entrySet()) {
+            strings.add(property.getKey().getBytes(UTF_8));
+            strings.add(property.getValue().getBytes(UTF_8));
+        }
+        for (final byte[] string : strings) {
+            length += Integer.BYTES + string.length;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(length).putInt(properties.size());
+        for (final byte[] string : strings) {
+            buffer.putInt(string.length).put(string);
+        }
+        return buffer.array();
+    }
+
+    private void acquireWriterLock() throws IOException {
+        writerLockChannel = FileChannel.open(directory.resolve(WRITER_LOCK_FILE), CREATE, WRITE);
+        writerLock = writerLockChannel.tryLock();
+        if (writerLock == null) {
+            writerLockChannel.close();
+            throw new IOException("Topic " + directory + " is produced by another process");
+        }
+        // Records might have been appended by the previous owner since this topic has been opened
+        endOffset = scan(endOffset);
+    }
+
+    /**
+     * Returns the offset behind the last record of the topic.
+     */
+    public long endOffset() throws IOException {
+        if (writerLock == null) {
+            synchronized (segmentLock) {
+                endOffset = scan(endOffset);
+            }
+        }
+        return endOffset;
+    }
+
+    private long scan(long offset) throws IOException {
+        while (true) {
+            final MappedByteBuffer segment = segment(segmentOf(offset), false);
+            if (segment == null) return offset;
+            final int position = positionOf(offset);
+            final int frameLength = position <= SEGMENT_BYTES - Integer.BYTES ? segment.getInt(position) : END_OF_SEGMENT;
+            if (frameLength == 0) return offset;
+            if (frameLength == END_OF_SEGMENT) {
+                offset = nextSegmentOffset(offset);
+            } else {
+                indexFrame(offset);
+                offset += Integer.BYTES + frameLength;
+            }
+        }
+    }
+
+    private void indexFrame(final long offset) {
+        final Long indexedOffset = frameIndex.floor(offset);
+        if (indexedOffset == null || indexedOffset / FRAME_INDEX_INTERVAL_BYTES != offset / FRAME_INDEX_INTERVAL_BYTES) frameIndex.add(offset);
+    }
+
+    /**
+     * Returns whether a record starts or ends at the given offset. Only such an offset may be passed to {@link #read(long)},
+     * {@link #forEach(long, FrameHandler)} or {@link #next(long, long)}, any other one would be read as a frame of arbitrary length.
+     */
+    public boolean isRecordBoundary(final long offset) throws IOException {
+        final long end = endOffset();
+        if (offset < 0 || offset > end) return false;
+        final Long indexedOffset = frameIndex.floor(offset);
+        long position = indexedOffset != null ? indexedOffset : 0;
+        while (position < offset) {
+            final long frame = frameOffset(position, end);
+            if (frame >= offset) return frame == offset;
+            position = frame + Integer.BYTES + segments[segmentOf(frame)].getInt(positionOf(frame));
+        }
+        return position == offset;
+    }
+
+    /**
+     * Returns the record at the given offset, or null if no record has been appended there yet.
+     */
+    public Frame read(final long offset) throws IOException {
+        final long end = endOffset();
+        final long frameOffset = frameOffset(offset, end);
+        return frameOffset < end ? readFrame(frameOffset, true) : null;
+    }
+
+    /**
+     * Returns the record at the given offset once it has been appended, or null if that has not happened within the given time.
+     */
+    public Frame next(final long offset, final long timeoutMillis) throws IOException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        long end;
+        try {
+            while ((end = endOffset()) <= frameOffset(offset, end)) {
+                final long remainingMillis = deadline - System.currentTimeMillis();
+                if (remainingMillis <= 0) return null;
+                // Appends of this process wake up the reader at once, those of other processes are noticed within the poll interval
+                synchronized (appended) {
+                    appended.wait(Math.min(remainingMillis, POLL_INTERVAL_MILLIS));
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for records of topic " + directory);
+        }
+        return readFrame(frameOffset(offset, end), true);
+    }
+
+    /**
+     * Passes the records from the given offset up to the current end of the topic to the handler, until the handler returns false.
+     */
+    public void forEach(final long fromOffset, final FrameHandler handler) throws IOException {
+        final long end = endOffset();
+        long offset = fromOffset;
+        while ((offset = frameOffset(offset, end)) < end) {
+            final Frame record = readFrame(offset, true);
+            if (!handler.handle(record)) return;
+            offset = record.nextOffset;
+        }
+    }
+
+    /**
+     * Returns the latest record with the given key, or null if there is none. The offsets of all keys are indexed on first use and kept up to date
+     * with every further lookup.
+     */
+    public Frame latest(final String key) throws IOException {
+        final Long offset;
+        synchronized (latestOffsets) {
+            final long end = endOffset();
+            long indexOffset = indexedOffset;
+            while ((indexOffset = frameOffset(indexOffset, end)) < end) {
+                final Frame record = readFrame(indexOffset, false);
+                latestOffsets.put(record.key, indexOffset);
+                indexOffset = record.nextOffset;
+            }
+            indexedOffset = end;
+            offset = latestOffsets.get(key);
+        }
+        return offset != null ? readFrame(offset, true) : null;
+    }
+
+    /**
+     * Returns a subscription. The committed offset of a durable subscription is kept in a file of the topic directory, any other one starts at the
+     * beginning of the topic. A subscription must only be consumed by one consumer at a time.
+     */
+    public Subscription subscribe(final String subscriptionName, final boolean isDurable) throws IOException {
+        if (!isDurable) return new Subscription(null);
+        final Path offsetFile = directory.resolve(subscriptionName.replace('/', '.') + OFFSET_FILE_SUFFIX);
+        try (final FileChannel channel = FileChannel.open(offsetFile, CREATE, READ, WRITE)) {
+            return new Subscription(channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES));
+        }
+    }
+
+    private long frameOffset(final long offset, final long end) {
+        if (offset >= end) return offset;
+        final int position = positionOf(offset);
+        if (position > SEGMENT_BYTES - Integer.BYTES || segments[segmentOf(offset)].getInt(position) == END_OF_SEGMENT) {
+            return nextSegmentOffset(offset);
+        }
+        return offset;
+    }
+
+    private Frame readFrame(final long offset, final boolean withValue) throws IOException {
+        final ByteBuffer frame = segment(segmentOf(offset), false).duplicate();
+        frame.position(positionOf(offset));
+        final int frameLength = frame.getInt();
+        final int frameEnd = frame.position() + frameLength;
+        final byte[] keyBytes = new byte[frame.getInt()];
+        frame.get(keyBytes);
+        final Map<String, String> properties = propertiesOf(frame);
+        byte[] value = null;
+        if (withValue) {
+            value = new byte[frameEnd - frame.position()];
+            frame.get(value);
+        }
+        return new Frame(offset, offset + Integer.BYTES + frameLength, new String(keyBytes, UTF_8), properties, value);
+    }
+
+    private static Map<String, String> propertiesOf(final ByteBuffer frame) {
+        final int propertyCount = frame.getInt();
+        if (propertyCount == 0) return Collections.emptyMap();
+        final Map<String, String> properties = new LinkedHashMap<>();
+        for (int i = 0; i < propertyCount; i++) {
+            properties.put(stringOf(frame), stringOf(frame));
+        }
+        return properties;
+    }
+
+    private static String stringOf(final ByteBuffer frame) {
+        final byte[] bytes = new byte[frame.getInt()];
+        frame.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private MappedByteBuffer segment(final int index, final boolean create) throws IOException {
+        final MappedByteBuffer[] mappedSegments = segments;
+        if (index < mappedSegments.length) return mappedSegments[index];
+        synchronized (segmentLock) {
+            while (segments.length <= index) {
+                final Path segmentFile = directory.resolve(String.format("%020d.log", segments.length));
+                // A segment is only read once it has been created with its full size
+                if (!create && (!Files.exists(segmentFile) || Files.size(segmentFile) < SEGMENT_BYTES)) return null;
+                try (final FileChannel channel = FileChannel.open(segmentFile, CREATE, READ, WRITE)) {
+                    final MappedByteBuffer[] extendedSegments = Arrays.copyOf(segments, segments.length + 1);
+                    extendedSegments[segments.length] = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES);
+                    segments = extendedSegments;
+                }
+            }
+            return segments[index];
+        }
+    }
+
+    private static int segmentOf(final long offset) {
+        return (int) (offset / SEGMENT_BYTES);
+    }
+
+    private static int positionOf(final long offset) {
+        return (int) (offset % SEGMENT_BYTES);
+    }
+
+    private static long nextSegmentOffset(final long offset) {
+        return (segmentOf(offset) + 1L) * SEGMENT_BYTES;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writerLock == null) return;
+        for (final MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        writerLock.release();
+        writerLockChannel.close();
+        writerLock = null;
+    }
+
+    /**
+     * This class represents the position of a consumer within the topic. Polled records are consumed again after a rewind unless they have been
+     * committed, and after a restart as well if the subscription is durable.
+     */
+    public final class Subscription {
+        private final MappedByteBuffer committedOffsetFile;
+        private long committedOffset;
+        private long position;
+
+        private Subscription(final MappedByteBuffer committedOffsetFile) {
+            this.committedOffsetFile = committedOffsetFile;
+            this.committedOffset = committedOffsetFile != null ? committedOffsetFile.getLong(0) : 0;
+            this.position = committedOffset;
+        }
+
+        /**
+         * Returns up to the given number of records following the previously polled ones. Waits for the given time at most if there are none.
+         */
+        public List<Frame> poll(final int maxRecords, final long timeoutMillis) throws IOException {
+            final List<Frame> records = new ArrayList<>();
+            final Frame firstRecord = next(position, timeoutMillis);
+            if (firstRecord == null) return records;
+            records.add(firstRecord);
+            final long end = endOffset();
+            long offset = firstRecord.nextOffset;
+            while (records.size() < maxRecords && (offset = frameOffset(offset, end)) < end) {
+                final Frame record = readFrame(offset, true);
+                records.add(record);
+                offset = record.nextOffset;
+            }
+            position = offset;
+            return records;
+        }
+
+        public void commit() {
+            committedOffset = position;
+            if (committedOffsetFile != null) committedOffsetFile.putLong(0, committedOffset);
+        }
+
+        public void rewind() {
+            position = committedOffset;
+        }
+    }
+
+    /**
+     * This class represents a record of the topic together with the offset of the following one. The value is only read if requested.
+     */
+    @Value
+    public static class Frame {
+        long offset;
+        long nextOffset;
+        String key;
+        Map<String, String> properties;
+        byte[] value;
+    }
+
+    public interface FrameHandler {
+        boolean handle(final Frame record) throws IOException;
+    }
+}
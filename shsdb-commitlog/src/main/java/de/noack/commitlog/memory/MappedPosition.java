@@ -0,0 +1,26 @@
+package de.noack.commitlog.memory;
+
+import de.noack.commitlog.Position;
+import lombok.Value;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class represents the position of a record within a {@link MappedLog}, which is its offset in bytes.
+ *
+ * @author davidnoack
+ */
+@Value
+public class MappedPosition implements Position {
+    long offset;
+
+    @Override
+    public byte[] toByteArray() {
+        return ByteBuffer.allocate(Long.BYTES).putLong(offset).array();
+    }
+
+    @Override
+    public int compareTo(final Position position) {
+        return Long.compare(offset, ((MappedPosition) position).offset);
+    }
+}
@@ -0,0 +1,163 @@
+package de.noack.commitlog.memory;
+
+import de.noack.commitlog.*;
+import de.noack.commitlog.memory.MappedLog.Frame;
+import org.apache.pulsar.client.api.Schema;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * This class represents a {@link Topic} of the in-process commit log, which is kept in a {@link MappedLog}. Records are appended synchronously, so
+ * that a produced record is persisted once its future is returned. The type of a topic makes no difference, as there is neither a broker to
+ * configure nor compaction. The memory-mapped files are read by a single instance per machine, so that a sliced subscription has to consist of one
+ * slice.
+ *
+ * @author davidnoack
+ */
+public class MappedTopic<V> implements Topic<V> {
+    private final MappedLog log;
+    private final String name;
+    private final Schema<V> schema;
+
+    public MappedTopic(final MappedLog log, final String name, final Schema<V> schema) {
+        this.log = log;
+        this.name = name;
+        this.schema = schema;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public CompletableFuture<Position> produceAsync(final String key, final String orderingKey, final V value,
+                                                    final Map<String, String> properties) {
+        final CompletableFuture<Position> position = new CompletableFuture<>();
+        try {
+            position.complete(new MappedPosition(log.produce(key, schema.encode(value), properties)));
+        } catch (final IOException | RuntimeException e) {
+            position.completeExceptionally(e);
+        }
+        return position;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public Subscription<V> subscribe(final String subscriptionName, final SubscriptionOptions options) throws IOException {
+        if (options.isSliced() && options.getInstanceCount() > 1) {
+            throw new IllegalArgumentException("Topic " + name + " cannot be consumed by " + options.getInstanceCount() + " instances");
+        }
+        final MappedLog.Subscription subscription = log.subscribe(subscriptionName, options.isDurable());
+        return new Subscription<V>() {
+            @Override
+            public List<LogRecord<V>> poll(final int maxRecords, final long timeoutMillis) throws IOException {
+                return subscription.poll(maxRecords, timeoutMillis).stream().map(MappedTopic.this::recordOf).collect(Collectors.toList());
+            }
+
+            @Override
+            public void commit() {
+                subscription.commit();
+            }
+
+            @Override
+            public void rewind() {
+                subscription.rewind();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Override
+    public LogReader<V> readFrom(final Position position) {
+        return readerFrom(((MappedPosition) position).getOffset());
+    }
+
+    @Override
+    public LogReader<V> follow(final byte[] checkpoint) throws IOException {
+        if (checkpoint == null) return readerFrom(0);
+        final long offset = checkpoint.length == Long.BYTES ? ByteBuffer.wrap(checkpoint).getLong() : -1;
+        if (!log.isRecordBoundary(offset)) throw new IllegalArgumentException("Checkpoint is not a position of the topic " + name);
+        return readerFrom(offset);
+    }
+
+    private LogReader<V> readerFrom(final long offset) {
+        return new LogReader<V>() {
+            private long nextOffset = offset;
+
+            @Override
+            public LogRecord<V> next(final long timeoutMillis) throws IOException {
+                final Frame frame = log.next(nextOffset, timeoutMillis);
+                if (frame == null) return null;
+                nextOffset = frame.getNextOffset();
+                return recordOf(frame);
+            }
+
+            @Override
+            public byte[] checkpoint() {
+                return new MappedPosition(nextOffset).toByteArray();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Override
+    public void forEachAfter(final Position position, final RecordHandler<V> handler) throws IOException {
+        long fromOffset = 0;
+        if (position != null) {
+            final Frame frame = log.read(((MappedPosition) position).getOffset());
+            if (frame == null) return;
+            fromOffset = frame.getNextOffset();
+        }
+        log.forEach(fromOffset, frame -> handler.handle(recordOf(frame)));
+    }
+
+    @Override
+    public LogRecord<V> read(final Position position) throws IOException {
+        final long offset = ((MappedPosition) position).getOffset();
+        final Frame frame = log.read(offset);
+        return frame != null && frame.getOffset() == offset ? recordOf(frame) : null;
+    }
+
+    @Override
+    public LogRecord<V> latest(final String key) throws IOException {
+        final Frame frame = log.latest(key);
+        return frame != null ? recordOf(frame) : null;
+    }
+
+    @Override
+    public Position positionOf(final byte[] bytes) {
+        final long offset = bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : -1;
+        try {
+            // A forged or outdated position must not be read as a frame
+            if (log.isRecordBoundary(offset)) return new MappedPosition(offset);
+        } catch (final IOException e) {
+            throw new IllegalArgumentException("Position of the topic " + name + " cannot be checked", e);
+        }
+        throw new IllegalArgumentException("Bytes do not denote a position of the topic " + name);
+    }
+
+    private LogRecord<V> recordOf(final Frame frame) {
+        return new LogRecord<>(new MappedPosition(frame.getOffset()), frame.getKey(), () -> schema.decode(frame.getValue()),
+                frame.getProperties());
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+}
@@ -0,0 +1,47 @@
+package de.noack.commitlog.pulsar;
+
+import de.noack.commitlog.CommitLogClient;
+import de.noack.commitlog.Topic;
+import de.noack.commitlog.TopicType;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.apache.pulsar.client.api.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * This class represents the connection to an Apache Pulsar cluster. Producers, consumers and readers of all topics share the connections of one
+ * {@link PulsarClient}.
+ *
+ * @author davidnoack
+ */
+public class PulsarCommitLogClient implements CommitLogClient {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PulsarCommitLogClient.class);
+    private final PulsarClient client;
+
+    public PulsarCommitLogClient(final String serviceUrl) throws PulsarClientException {
+        this.client = PulsarClient.builder()
+                .serviceUrl(serviceUrl)
+                .build();
+        LOGGER.info("Created client for service URL {}", serviceUrl);
+    }
+
+    @Override
+    public <V> Topic<V> openTopic(final String name, final TopicType type, final Schema<V> schema) throws IOException {
+        final PulsarTopic<V> topic = new PulsarTopic<>(client, name, type, schema);
+        try {
+            topic.start();
+        } catch (final IOException e) {
+            topic.close();
+            throw e;
+        }
+        return topic;
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+}
@@ -0,0 +1,25 @@
+package de.noack.commitlog.pulsar;
+
+import de.noack.commitlog.Position;
+import lombok.Value;
+import org.apache.pulsar.client.api.MessageId;
+
+/**
+ * This class represents the position of a message within a Pulsar topic, which is its {@link MessageId}.
+ *
+ * @author davidnoack
+ */
+@Value
+public class PulsarPosition implements Position {
+    MessageId messageId;
+
+    @Override
+    public byte[] toByteArray() {
+        return messageId.toByteArray();
+    }
+
+    @Override
+    public int compareTo(final Position position) {
+        return messageId.compareTo(((PulsarPosition) position).messageId);
+    }
+}
@@ -0,0 +1,76 @@
+package de.noack.commitlog.pulsar;
+
+import de.noack.commitlog.LogRecord;
+import de.noack.commitlog.Subscription;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.PulsarClientException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * This class represents a {@link Subscription} of a Pulsar topic with one {@link Consumer}. Committed messages are acknowledged one by one, as
+ * the messages of a shared subscription are not acknowledged in order. Rewound messages are negatively acknowledged, so that they are redelivered
+ * by the broker, possibly to another consumer of the subscription. A subscription which is not durable is removed from the broker on close, so that
+ * it does not leave a cursor behind which retains the messages of the topic.
+ *
+ * @author davidnoack
+ */
+class PulsarSubscription<V> implements Subscription<V> {
+    private final Consumer<V> consumer;
+    private final boolean isDurable;
+    private final List<Message<V>> polledMessages = new ArrayList<>();
+
+    PulsarSubscription(final Consumer<V> consumer, final boolean isDurable) {
+        this.consumer = consumer;
+        this.isDurable = isDurable;
+    }
+
+    @Override
+    public List<LogRecord<V>> poll(final int maxRecords, final long timeoutMillis) throws IOException {
+        final List<LogRecord<V>> records = new ArrayList<>();
+        Message<V> message = consumer.receive((int) Math.min(timeoutMillis, Integer.MAX_VALUE), MILLISECONDS);
+        while (message != null) {
+            polledMessages.add(message);
+            records.add(PulsarTopic.recordOf(message));
+            // Further messages are only taken if they have been prefetched already
+            message = records.size() < maxRecords ? consumer.receive(0, MILLISECONDS) : null;
+        }
+        return records;
+    }
+
+    @Override
+    public void commit() throws IOException {
+        for (final Message<V> message : polledMessages) {
+            consumer.acknowledge(message);
+        }
+        polledMessages.clear();
+    }
+
+    @Override
+    public void rewind() {
+        for (final Message<V> message : polledMessages) {
+            consumer.negativeAcknowledge(message);
+        }
+        polledMessages.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isDurable) {
+            consumer.close();
+            return;
+        }
+        try {
+            // Unsubscribing closes the consumer as well
+            consumer.unsubscribe();
+        } catch (final PulsarClientException e) {
+            consumer.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package de.noack.commitlog.pulsar;
+
+import de.noack.commitlog.*;
+import org.apache.pulsar.client.api.Reader;
+import org.apache.pulsar.client.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.pulsar.client.api.CompressionType.LZ4;
+
+/**
+ * This class represents a {@link Topic} of Apache Pulsar. Records are produced by one long-lived {@link Producer} per topic, whose batching depends
+ * on the type of the topic, and queried with a {@link TopicCursor}. A sliced subscription is a Key_Shared subscription on the ordering key, each
+ * instance owning a fixed slice of the hash range, so that the records of one ordering key are consumed by the same instance on all topics.
+ *
+ * @author davidnoack
+ */
+public class PulsarTopic<V> implements Topic<V> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PulsarTopic.class);
+    private static final int MAX_PENDING_CHUNKS = 16;
+    private static final int MAX_IN_FLIGHT_MESSAGES = 10000;
+    private static final int BATCHING_MAX_MESSAGES = 1000;
+    private static final long BATCHING_MAX_PUBLISH_DELAY_MILLIS = 10;
+    private static final long NEGATIVE_ACK_REDELIVERY_DELAY_SECONDS = 1;
+    private final PulsarClient client;
+    private final String name;
+    private final TopicType type;
+    private final Schema<V> schema;
+    private final TopicCursor<V> cursor;
+    private Producer<V> producer;
+
+    PulsarTopic(final PulsarClient client, final String name, final TopicType type, final Schema<V> schema) {
+        this.client = client;
+        this.name = name;
+        this.type = type;
+        this.schema = schema;
+        this.cursor = new TopicCursor<>(client, schema, name, type == TopicType.FILES);
+    }
+
+    void start() throws IOException {
+        final ProducerBuilder<V> producerBuilder = client.newProducer(schema)
+                .topic(name)
+                .compressionType(LZ4)
+                .blockIfQueueFull(true);
+        if (type == TopicType.FILES) {
+            producer = producerBuilder
+                    // Every chunk is a message of its own, so that its message ID can be referred to and read without unpacking a batch
+                    .enableBatching(false)
+                    // Uploads wait for persisted chunks instead of queueing the whole file
+                    .maxPendingMessages(MAX_PENDING_CHUNKS)
+                    .create();
+        } else {
+            producer = producerBuilder
+                    .enableBatching(true)
+                    // Batches must not mix ordering keys, because Key_Shared subscriptions dispatch whole batches by their ordering key
+                    .batcherBuilder(BatcherBuilder.KEY_BASED)
+                    .batchingMaxMessages(BATCHING_MAX_MESSAGES)
+                    .batchingMaxPublishDelay(BATCHING_MAX_PUBLISH_DELAY_MILLIS, MILLISECONDS)
+                    .maxPendingMessages(MAX_IN_FLIGHT_MESSAGES)
+                    .create();
+        }
+        LOGGER.info("Created producer for the topic {}", name);
+        cursor.start();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public CompletableFuture<Position> produceAsync(final String key, final String orderingKey, final V value,
+                                                    final Map<String, String> properties) {
+        final TypedMessageBuilder<V> message = producer.newMessage()
+                .key(key)
+                .properties(properties)
+                .value(value);
+        if (orderingKey != null) message.orderingKey(orderingKey.getBytes(UTF_8));
+        return message.sendAsync().thenApply(messageId -> {
+            // The message is visible to queries at once, before the cursor has read it from the topic
+            cursor.put(key, messageId);
+            return new PulsarPosition(messageId);
+        });
+    }
+
+    @Override
+    public void flush() throws IOException {
+        producer.flush();
+    }
+
+    @Override
+    public Subscription<V> subscribe(final String subscriptionName, final SubscriptionOptions options) throws IOException {
+        final ConsumerBuilder<V> consumerBuilder = client.newConsumer(schema)
+                .topic(name)
+                .subscriptionInitialPosition(SubscriptionInitialPosition.Earliest)
+                .negativeAckRedeliveryDelay(NEGATIVE_ACK_REDELIVERY_DELAY_SECONDS, SECONDS);
+        // Chunks are up to a megabyte large, so that only a few of them are prefetched
+        if (type == TopicType.FILES) consumerBuilder.receiverQueueSize(MAX_PENDING_CHUNKS);
+        if (options.isSliced()) {
+            consumerBuilder.subscriptionType(SubscriptionType.Key_Shared)
+                    .keySharedPolicy(KeySharedPolicy.stickyHashRange().ranges(hashRangeOf(options.getInstanceIndex(), options.getInstanceCount())));
+        } else {
+            consumerBuilder.subscriptionType(SubscriptionType.Shared);
+        }
+        // A subscription which is read from the beginning on every start is kept per instance, so that it is not reset for the other instances. The
+        // client offers neither non-durable consumers nor Key_Shared readers, so that it is removed again once it is closed.
+        final Consumer<V> consumer = consumerBuilder
+                .subscriptionName(options.isDurable() ? subscriptionName : subscriptionName + "-" + options.getInstanceIndex())
+                .subscribe();
+        if (!options.isDurable()) consumer.seek(MessageId.earliest);
+        LOGGER.info("Created consumer for the topic {}", name);
+        return new PulsarSubscription<>(consumer, options.isDurable());
+    }
+
+    /**
+     * Returns the hash range of the ordering keys owned by the given instance. The instances split the whole range evenly, messages of a range
+     * without any consumer are not dispatched at all, so that every instance has to be started with the same instance count.
+     */
+    static Range hashRangeOf(final int instanceIndex, final int instanceCount) {
+        final int hashRangeSize = KeySharedPolicy.DEFAULT_HASH_RANGE_SIZE;
+        return Range.of(instanceIndex * hashRangeSize / instanceCount, (instanceIndex + 1) * hashRangeSize / instanceCount - 1);
+    }
+
+    @Override
+    public LogReader<V> readFrom(final Position position) throws IOException {
+        final TopicCursor<V>.Scan scan = cursor.scanFrom(((PulsarPosition) position).getMessageId());
+        return new LogReader<V>() {
+            @Override
+            public LogRecord<V> next(final long timeoutMillis) throws IOException {
+                final Message<V> message = scan.next(timeoutMillis);
+                return message != null ? recordOf(message) : null;
+            }
+
+            @Override
+            public byte[] checkpoint() {
+                return scan.lastMessageId().toByteArray();
+            }
+
+            @Override
+            public void close() throws IOException {
+                scan.close();
+            }
+        };
+    }
+
+    @Override
+    public LogReader<V> follow(final byte[] checkpoint) throws IOException {
+        final MessageId startMessageId;
+        try {
+            startMessageId = checkpoint != null ? MessageId.fromByteArray(checkpoint) : MessageId.earliest;
+        } catch (final IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Checkpoint is not a message ID of the topic " + name, e);
+        }
+        final Reader<V> reader = client.newReader(schema)
+                .topic(name)
+                .startMessageId(startMessageId)
+                .create();
+        LOGGER.info("Created reader for the topic {} starting after message ID {}", name, startMessageId);
+        return new LogReader<V>() {
+            private MessageId lastMessageId = startMessageId;
+
+            @Override
+            public LogRecord<V> next(final long timeoutMillis) throws IOException {
+                final Message<V> message = reader.readNext((int) Math.min(timeoutMillis, Integer.MAX_VALUE), MILLISECONDS);
+                if (message == null) return null;
+                lastMessageId = message.getMessageId();
+                return recordOf(message);
+            }
+
+            @Override
+            public byte[] checkpoint() {
+                return lastMessageId.toByteArray();
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    @Override
+    public void forEachAfter(final Position position, final RecordHandler<V> handler) throws IOException {
+        cursor.forEachAfter(position != null ? ((PulsarPosition) position).getMessageId() : MessageId.earliest,
+                message -> handler.handle(recordOf(message)));
+    }
+
+    @Override
+    public LogRecord<V> read(final Position position) throws IOException {
+        final MessageId messageId = ((PulsarPosition) position).getMessageId();
+        final Message<V> message = cursor.read(messageId);
+        return message != null && messageId.equals(message.getMessageId()) ? recordOf(message) : null;
+    }
+
+    @Override
+    public LogRecord<V> latest(final String key) throws IOException {
+        final Message<V> message = cursor.find(key);
+        return message != null ? recordOf(message) : null;
+    }
+
+    @Override
+    public Position positionOf(final byte[] bytes) {
+        try {
+            return new PulsarPosition(MessageId.fromByteArray(bytes));
+        } catch (final IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Bytes do not denote a message ID of the topic " + name, e);
+        }
+    }
+
+    static <V> LogRecord<V> recordOf(final Message<V> message) {
+        return new LogRecord<>(new PulsarPosition(message.getMessageId()), message.getKey(), message::getValue, message.getProperties());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (producer != null) producer.close();
+        cursor.close();
+    }
+}
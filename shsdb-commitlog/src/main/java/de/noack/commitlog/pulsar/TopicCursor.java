@@ -0,0 +1,256 @@
+package de.noack.commitlog.pulsar;
+
+import org.apache.pulsar.client.api.Reader;
+import org.apache.pulsar.client.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * This class represents the query side of one topic. Queries are answered by {@link Reader}s taken from a pool of the cursor: a full read stops
+ * once the broker reports no further message instead of waiting for a timeout, a lookup seeks directly to the indexed {@link MessageId} of its key.
+ * Only a cursor indexing keys reads its topic from the beginning on start and follows its tail with a long-lived {@link Reader}, as the
+ * {@link MessageId} of the latest message per key is known from the topic itself only. All {@link Reader}s share the connections of the
+ * {@link PulsarClient}.
+ *
+ * @author davidnoack
+ */
+public class TopicCursor<T> implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TopicCursor.class);
+    private static final int MAX_IDLE_READERS = 4;
+    private static final int READ_TIMEOUT_SECONDS = 10;
+    private final Map<String, MessageId> latestMessageIds = new ConcurrentHashMap<>();
+    private final BlockingQueue<Reader<T>> idleReaders = new LinkedBlockingQueue<>();
+    private final PulsarClient client;
+    private final Schema<T> schema;
+    private final String topicName;
+    private final boolean isIndexingKeys;
+    private volatile boolean isRunning;
+    private Reader<T> tailReader;
+
+    public TopicCursor(final PulsarClient client, final Schema<T> schema, final String topicName, final boolean isIndexingKeys) {
+        this.client = client;
+        this.schema = schema;
+        this.topicName = topicName;
+        this.isIndexingKeys = isIndexingKeys;
+    }
+
+    /**
+     * Reads the topic up to its current end before returning if keys are indexed, so that lookups see all messages published before the start.
+     * Further messages are followed by a thread of the cursor.
+     */
+    public void start() throws IOException {
+        isRunning = true;
+        if (!isIndexingKeys) return;
+        tailReader = client.newReader(schema).topic(topicName)
+                .startMessageId(MessageId.earliest)
+                .create();
+        while (tailReader.hasMessageAvailable()) {
+            final Message<T> message = tailReader.readNext(READ_TIMEOUT_SECONDS, SECONDS);
+            if (message == null) break;
+            apply(message);
+        }
+        LOGGER.info("Caught up with the topic {}, indexed {} message keys", topicName, latestMessageIds.size());
+        new Thread(this::followTail, "cursor-" + topicName).start();
+    }
+
+    private void followTail() {
+        while (isRunning) {
+            try {
+                final Message<T> message = tailReader.readNext(1, SECONDS);
+                if (message != null) apply(message);
+            } catch (final PulsarClientException e) {
+                if (isRunning) LOGGER.error("Error during reading from topic {} occurred. Reason: {}", topicName, e.getMessage());
+            }
+        }
+    }
+
+    private void apply(final Message<T> message) {
+        if (message.hasKey()) index(message.getKey(), message.getMessageId());
+    }
+
+    /**
+     * Makes a message published by this application visible to queries at once, before the cursor has read it from the topic.
+     */
+    public void put(final String messageKey, final MessageId messageId) {
+        if (isIndexingKeys) index(messageKey, messageId);
+    }
+
+    private void index(final String messageKey, final MessageId messageId) {
+        // Messages put before are read by the cursor later on, which must not replace them by the earlier messages of the same key
+        latestMessageIds.merge(messageKey, messageId, (indexedMessageId, newMessageId) ->
+                newMessageId.compareTo(indexedMessageId) > 0 ? newMessageId : indexedMessageId);
+    }
+
+    public Message<T> find(final String messageKey) throws IOException {
+        final MessageId messageId = latestMessageIds.get(messageKey);
+        if (messageId == null) return null;
+        final Message<T> message = read(messageId);
+        return message != null && messageKey.equals(message.getKey()) ? message : null;
+    }
+
+    /**
+     * Returns the message with the given {@link MessageId} or the next one after it, if it does not exist anymore.
+     */
+    public Message<T> read(final MessageId messageId) throws IOException {
+        final Reader<T> reader = borrowReader();
+        boolean isCompleted = false;
+        try {
+            reader.seek(messageId);
+            final Message<T> message = readUntil(reader, messageId);
+            isCompleted = true;
+            return message;
+        } finally {
+            returnReader(reader, isCompleted);
+        }
+    }
+
+    /**
+     * Passes the messages following the given {@link MessageId} up to the last one of the topic to the handler, until the handler returns false.
+     * This allows to continue reading where a previous read has been stopped.
+     */
+    public void forEachAfter(final MessageId startMessageId, final MessageHandler<T> handler) throws IOException {
+        final Reader<T> reader = borrowReader();
+        boolean isCompleted = false;
+        try {
+            reader.seek(startMessageId);
+            // The broker knows the last message of the topic, so that the read neither replays the topic nor waits for a timeout at its end
+            while (reader.hasMessageAvailable()) {
+                final Message<T> message = reader.readNext(READ_TIMEOUT_SECONDS, SECONDS);
+                if (message == null) throw new IOException("Timeout during reading from topic " + topicName);
+                // A seek positions the reader on the entry of the message, so that the messages up to the given one are skipped
+                if (message.getMessageId().compareTo(startMessageId) > 0 && !handler.handle(message)) break;
+            }
+            isCompleted = true;
+        } finally {
+            returnReader(reader, isCompleted);
+        }
+    }
+
+    /**
+     * Returns a scan over the messages from the given {@link MessageId} on, e.g. to collect the chunks of a file which have been published one
+     * after the other. The scan is not limited to the last message known to the cursor and has to be closed to return its {@link Reader}.
+     */
+    public Scan scanFrom(final MessageId startMessageId) throws IOException {
+        final Reader<T> reader = borrowReader();
+        boolean isCompleted = false;
+        try {
+            reader.seek(startMessageId);
+            isCompleted = true;
+            return new Scan(reader, startMessageId);
+        } finally {
+            if (!isCompleted) returnReader(reader, false);
+        }
+    }
+
+    private Message<T> readUntil(final Reader<T> reader, final MessageId messageId) throws PulsarClientException {
+        // A seek positions the reader on the entry of the message, which starts with the first message of its batch
+        Message<T> message;
+        do {
+            message = reader.readNext(READ_TIMEOUT_SECONDS, SECONDS);
+        } while (message != null && message.getMessageId().compareTo(messageId) < 0);
+        return message;
+    }
+
+    private Reader<T> borrowReader() throws PulsarClientException {
+        final Reader<T> reader = idleReaders.poll();
+        if (reader != null) return reader;
+        return client.newReader(schema).topic(topicName)
+                .startMessageId(MessageId.earliest)
+                .create();
+    }
+
+    private void releaseReader(final Reader<T> reader) throws IOException {
+        if (isRunning && idleReaders.size() < MAX_IDLE_READERS && idleReaders.offer(reader)) return;
+        reader.close();
+    }
+
+    /**
+     * Returns a borrowed {@link Reader} to the pool. A failed read leaves its {@link Reader} at an unknown position, so that it is closed instead,
+     * without hiding the failure of the read by one of the close.
+     */
+    private void returnReader(final Reader<T> reader, final boolean isCompleted) throws IOException {
+        if (isCompleted) {
+            releaseReader(reader);
+            return;
+        }
+        try {
+            reader.close();
+        } catch (final IOException e) {
+            LOGGER.error("Error during close of a reader of topic {} occurred. Reason: {}", topicName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        isRunning = false;
+        if (tailReader != null) tailReader.close();
+        Reader<T> reader;
+        while ((reader = idleReaders.poll()) != null) {
+            reader.close();
+        }
+    }
+
+    /**
+     * This class represents a read of the topic which is continued message by message. A failed read leaves its {@link Reader} at an unknown
+     * position, so that it is closed instead of being returned to the pool.
+     */
+    public final class Scan implements Closeable {
+        private final Reader<T> reader;
+        private final MessageId startMessageId;
+        private boolean isFailed;
+        private MessageId lastMessageId;
+
+        private Scan(final Reader<T> reader, final MessageId startMessageId) {
+            this.reader = reader;
+            this.startMessageId = startMessageId;
+        }
+
+        /**
+         * Returns the message following the previous one, or null if none has been published within the given time.
+         */
+        public Message<T> next(final long timeoutMillis) throws IOException {
+            final long deadline = System.currentTimeMillis() + timeoutMillis;
+            try {
+                Message<T> message;
+                do {
+                    final long remainingMillis = Math.max(0, deadline - System.currentTimeMillis());
+                    message = reader.readNext((int) Math.min(remainingMillis, Integer.MAX_VALUE), MILLISECONDS);
+                    if (message == null) return null;
+                    // A seek positions the reader on the entry of the message, which starts with the first message of its batch
+                } while (message.getMessageId().compareTo(startMessageId) < 0);
+                lastMessageId = message.getMessageId();
+                return message;
+            } catch (final IOException e) {
+                isFailed = true;
+                throw e;
+            }
+        }
+
+        /**
+         * Returns the {@link MessageId} of the message returned last, or the one the scan has been started with.
+         */
+        public MessageId lastMessageId() {
+            return lastMessageId != null ? lastMessageId : startMessageId;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (isFailed) reader.close();
+            else releaseReader(reader);
+        }
+    }
+
+    public interface MessageHandler<T> {
+        boolean handle(final Message<T> message) throws IOException;
+    }
+}
@@ -0,0 +1,146 @@
+package de.noack.commitlog;
+
+import lombok.*;
+import org.apache.pulsar.client.api.SchemaSerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author davidnoack
+ */
+public class BinarySchemaTest {
+    private final BinarySchema<Record> schema = BinarySchema.of(Record.class);
+
+    @Test
+    public void decodesWhatHasBeenEncoded() {
+        final Record record = new Record();
+        record.text = "Société Générale – 株式会社 💶";
+        record.integer = Integer.MIN_VALUE;
+        record.primitiveInteger = Integer.MAX_VALUE;
+        record.longValue = Long.MIN_VALUE;
+        record.primitiveLong = Long.MAX_VALUE;
+        record.flag = false;
+        record.primitiveFlag = true;
+        record.decimal = new BigDecimal("-1234.5678");
+        record.date = LocalDate.of(2019, 6, 30);
+        record.key = new Key("DE0001102580", 201906);
+        record.inherited = "inherited";
+        assertEquals(record, schema.decode(schema.encode(record)));
+    }
+
+    @Test
+    public void keepsNullValues() {
+        final Record record = new Record();
+        record.key = new Key(null, 0);
+        assertEquals(record, schema.decode(schema.encode(record)));
+        final Record withoutKey = new Record();
+        assertEquals(withoutKey, schema.decode(schema.encode(withoutKey)));
+    }
+
+    @Test
+    public void keepsEmptyTexts() {
+        final Record record = new Record();
+        record.text = "";
+        record.inherited = "";
+        assertEquals(record, schema.decode(schema.encode(record)));
+    }
+
+    @Test
+    public void keepsDecimalsWhichDoNotFitIntoALong() {
+        final BigDecimal[] decimals = {new BigDecimal("123456789012345678901234567890.5"), BigDecimal.valueOf(Long.MAX_VALUE),
+                BigDecimal.valueOf(Long.MIN_VALUE), new BigDecimal(BigInteger.ONE.shiftLeft(63)), new BigDecimal(BigInteger.ONE.shiftLeft(63).negate()),
+                BigDecimal.valueOf(1, Integer.MAX_VALUE), BigDecimal.valueOf(1, Integer.MIN_VALUE), new BigDecimal("1E+3"), new BigDecimal("-0.00"),
+                BigDecimal.ZERO};
+        for (final BigDecimal decimal : decimals) {
+            final Record record = new Record();
+            record.decimal = decimal;
+            // Scale has to be kept as well, as BigDecimal compares it in equals
+            assertEquals(decimal, schema.decode(schema.encode(record)).decimal, decimal.toString());
+        }
+    }
+
+    @Test
+    public void keepsDatesBeforeAndAfterTheEpoch() {
+        for (final LocalDate date : new LocalDate[]{LocalDate.MIN, LocalDate.of(1899, 12, 31), LocalDate.ofEpochDay(0), LocalDate.MAX}) {
+            final Record record = new Record();
+            record.date = date;
+            assertEquals(date, schema.decode(schema.encode(record)).date);
+        }
+    }
+
+    @Test
+    public void rejectsRecordsOfAnotherLayout() {
+        final Key key = new Key("DE0001102580", 201906);
+        final byte[] bytes = BinarySchema.of(Key.class).encode(key);
+        assertThrows(SchemaSerializationException.class, () -> schema.decode(bytes));
+        assertEquals(key, BinarySchema.of(Key.class).decode(bytes));
+    }
+
+    @Test
+    public void rejectsTruncatedRecords() {
+        final Record record = new Record();
+        record.text = "text";
+        final byte[] bytes = schema.encode(record);
+        assertThrows(SchemaSerializationException.class, () -> schema.decode(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(SchemaSerializationException.class, () -> schema.decode(Arrays.copyOf(bytes, 2)));
+    }
+
+    @Test
+    public void describesTheLayoutOfAllFields() {
+        final String layout = new String(schema.getSchemaInfo().getSchema(), UTF_8);
+        assertTrue(layout.contains("key:" + Key.class.getName() + "{identifier:java.lang.String,period:int}"), layout);
+        assertTrue(layout.contains("inherited:java.lang.String"), layout);
+        assertFalse(layout.contains("ignored"), layout);
+        assertFalse(layout.contains("alsoIgnored"), layout);
+        assertSame(schema, BinarySchema.of(Record.class));
+    }
+
+    @Test
+    public void rejectsClassesWithoutConstructorWithoutArguments() {
+        assertThrows(IllegalArgumentException.class, () -> BinarySchema.of(Unsupported.class));
+        // A failed class must not leave a half initialized codec behind
+        assertThrows(IllegalArgumentException.class, () -> BinarySchema.of(Unsupported.class));
+    }
+
+    @Data
+    private static class Base {
+        String inherited;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    private static final class Record extends Base {
+        private static final String ignored = "static";
+        private transient String alsoIgnored;
+        private String text;
+        private Integer integer;
+        private int primitiveInteger;
+        private Long longValue;
+        private long primitiveLong;
+        private Boolean flag;
+        private boolean primitiveFlag;
+        private BigDecimal decimal;
+        private LocalDate date;
+        private Key key;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static final class Key {
+        private String identifier;
+        private int period;
+    }
+
+    @Value
+    private static class Unsupported {
+        String value;
+    }
+}
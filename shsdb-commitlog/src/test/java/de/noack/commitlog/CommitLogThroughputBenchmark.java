@@ -0,0 +1,101 @@
+package de.noack.commitlog;
+
+import org.apache.pulsar.client.api.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class compares the throughput of producing and reading a topic of small records on each {@link CommitLog}, with the in-process commit log as
+ * baseline. It is not part of the regular test run, as it needs running brokers, and has to be started explicitly with their addresses:
+ * mvn test -pl shsdb-commitlog -Dtest=CommitLogThroughputBenchmark -Dcommitlog.pulsar.service-url=pulsar://localhost:6650
+ * -Dcommitlog.kafka.bootstrap-servers=localhost:9092
+ * <p>
+ * A commit log whose address is not set is skipped. Every run produces to a new topic, so that the records of a previous run are not read again.
+ *
+ * @author davidnoack
+ */
+public class CommitLogThroughputBenchmark {
+    private static final int RECORDS = 200_000;
+    // About the size of a transformed CSDB in the binary wire format
+    private static final int RECORD_SIZE = 285;
+    private static final int ROUNDS = 3;
+
+    @Test
+    public void compareCommitLogs() throws IOException {
+        final Path memoryDirectory = Files.createTempDirectory("commitlog-benchmark");
+        try {
+            final CommitLogSettings settings = new CommitLogSettings(System.getProperty("commitlog.pulsar.service-url"),
+                    System.getProperty("commitlog.kafka.bootstrap-servers"), memoryDirectory);
+            for (final CommitLog commitLog : CommitLog.values()) {
+                if (commitLog == CommitLog.PULSAR && settings.getPulsarServiceUrl() == null
+                        || commitLog == CommitLog.KAFKA && settings.getKafkaBootstrapServers() == null) {
+                    System.out.printf("%-7s skipped, as its address is not set%n", commitLog);
+                    continue;
+                }
+                try (final CommitLogClient client = commitLog.connect(settings)) {
+                    measure(commitLog, client);
+                }
+            }
+        } finally {
+            try (final Stream<Path> paths = Files.walk(memoryDirectory)) {
+                for (final Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private static void measure(final CommitLog commitLog, final CommitLogClient client) throws IOException {
+        final Random random = new Random(1);
+        final byte[][] values = new byte[1024][RECORD_SIZE];
+        for (final byte[] value : values) {
+            random.nextBytes(value);
+        }
+        final String runId = Long.toString(System.currentTimeMillis(), 36);
+        long produceNanos = Long.MAX_VALUE;
+        long readNanos = Long.MAX_VALUE;
+        // The first round warms up the client and creates the connections, every round uses a topic of its own
+        for (int round = 0; round <= ROUNDS; round++) {
+            try (final Topic<byte[]> topic = client.openTopic("throughput-" + runId + "-" + round, TopicType.COMPACTED_RECORDS, Schema.BYTES)) {
+                long start = System.nanoTime();
+                produce(topic, values);
+                final long roundProduceNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                final long[] readRecords = new long[1];
+                topic.forEach(record -> {
+                    readRecords[0] += record.getValue().length == RECORD_SIZE ? 1 : 0;
+                    return true;
+                });
+                final long roundReadNanos = System.nanoTime() - start;
+                assertEquals(RECORDS, readRecords[0], "Records read from " + topic.getName());
+                if (round == 0) continue;
+                produceNanos = Math.min(produceNanos, roundProduceNanos);
+                readNanos = Math.min(readNanos, roundReadNanos);
+            }
+        }
+        System.out.printf("%-7s produce %10.0f records/s %7.1f MB/s, read %10.0f records/s %7.1f MB/s%n", commitLog,
+                RECORDS * 1e9 / produceNanos, (double) RECORDS * RECORD_SIZE * 1e3 / produceNanos, RECORDS * 1e9 / readNanos,
+                (double) RECORDS * RECORD_SIZE * 1e3 / readNanos);
+    }
+
+    /**
+     * Produces all records without waiting for each of them, as the services do, and returns once all of them have been persisted.
+     */
+    private static void produce(final Topic<byte[]> topic, final byte[][] values) throws IOException {
+        final List<CompletableFuture<Position>> pending = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            final String key = String.format("XS%010d", i);
+            pending.add(topic.produceAsync(key, key, values[i % values.length], Collections.emptyMap()));
+        }
+        topic.flush();
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+    }
+}
@@ -0,0 +1,392 @@
+package de.noack.client;
+
+import de.noack.model.CSDB;
+import de.noack.model.CSDBKey;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * This class represents a columnar store of {@link CSDB} records which keeps the values of its records outside of the Java heap. Every attribute
+ * is stored in a column of fixed width slots, which is allocated in segments of direct memory as the store grows:
+ * <ul>
+ * <li>Codes with few distinct values like currencies, sectors, CFI codes and areas are dictionary encoded to an int.</li>
+ * <li>Free text like names and identifiers is written as UTF-8 to a shared direct memory area and referenced by address and length.</li>
+ * <li>Decimals are held as unscaled long plus scale. The few values which do not fit are kept on the heap.</li>
+ * <li>Dates are held as epoch days.</li>
+ * </ul>
+ * A record is addressed by the row number returned when it is appended and is rebuilt as {@link CSDB} only when it is read. A record which
+ * replaces another one, e.g. a re-delivery or a newer version, is written to the row of the replaced record, so that the store grows with the
+ * number of distinct records only. Text is written to the area of the replaced text, if it fits. Writing and reading may happen from different
+ * threads.
+ *
+ * @author davidnoack
+ */
+public final class CsdbColumnStore {
+    private static final int SEGMENT_ROWS = 1 << 14;
+    private static final int TEXT_SEGMENT_BYTES = 1 << 20;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TextArea textArea = new TextArea();
+    private final TextColumn identifiers = new TextColumn(csdb -> csdb.getCsdbKey().getIdentifier(), null);
+    private final IntColumn periods = new IntColumn(csdb -> csdb.getCsdbKey().getPeriod());
+    private final IntColumn versions = new IntColumn(csdb -> csdb.getCsdbKey().getVersion());
+    private final List<AttributeColumn> attributes = Arrays.asList(
+            new DecimalColumn(CSDB::getAccruedIncomeFactor, CSDB::setAccruedIncomeFactor),
+            new DecimalColumn(CSDB::getAccruedInterest, CSDB::setAccruedInterest),
+            new DecimalColumn(CSDB::getAmountOutstanding, CSDB::setAmountOutstanding),
+            new DecimalColumn(CSDB::getAmountOutstandingEuro, CSDB::setAmountOutstandingEuro),
+            new DictionaryColumn(CSDB::getAssetSecuritisationType, CSDB::setAssetSecuritisationType),
+            new DecimalColumn(CSDB::getAveragePrice, CSDB::setAveragePrice),
+            new DictionaryColumn(CSDB::getCfiCode, CSDB::setCfiCode),
+            new DateColumn(CSDB::getCouponDate, CSDB::setCouponDate),
+            new DictionaryColumn(CSDB::getCouponFrequency, CSDB::setCouponFrequency),
+            new DecimalColumn(CSDB::getCouponRate, CSDB::setCouponRate),
+            new DictionaryColumn(CSDB::getCouponType, CSDB::setCouponType),
+            new DictionaryColumn(CSDB::getDebtType, CSDB::setDebtType),
+            new DecimalColumn(CSDB::getDividendAmount, CSDB::setDividendAmount),
+            new DictionaryColumn(CSDB::getDividendCurrency, CSDB::setDividendCurrency),
+            new DateColumn(CSDB::getDividendSettlementDate, CSDB::setDividendSettlementDate),
+            new DictionaryColumn(CSDB::getDivType, CSDB::setDivType),
+            new DictionaryColumn(CSDB::getInEADB, CSDB::setInEADB),
+            new DictionaryColumn(CSDB::getInstrumentClass, CSDB::setInstrumentClass),
+            new DictionaryColumn(CSDB::getInstrumentClassESA95, CSDB::setInstrumentClassESA95),
+            new DictionaryColumn(CSDB::getInstrumentSeniorityType, CSDB::setInstrumentSeniorityType),
+            new DictionaryColumn(CSDB::getInternalOrganisationCode, CSDB::setInternalOrganisationCode),
+            new TextColumn(CSDB::getIssuerID, CSDB::setIssuerID),
+            new DictionaryColumn(CSDB::getIssuerIDType, CSDB::setIssuerIDType),
+            new DateColumn(CSDB::getIssueDate, CSDB::setIssueDate),
+            new DecimalColumn(CSDB::getIssuePrice, CSDB::setIssuePrice),
+            new DictionaryColumn(CSDB::getIssuerArea, CSDB::setIssuerArea),
+            new TextColumn(CSDB::getIssuerLEI, CSDB::setIssuerLEI),
+            new TextColumn(CSDB::getIssuerMFI, CSDB::setIssuerMFI),
+            new DictionaryColumn(CSDB::getIssuerNACESector, CSDB::setIssuerNACESector),
+            new TextColumn(CSDB::getIssuerName, CSDB::setIssuerName),
+            new DictionaryColumn(CSDB::getIssuerSector, CSDB::setIssuerSector),
+            new DictionaryColumn(CSDB::getIssuerESA95Sector, CSDB::setIssuerESA95Sector),
+            new DecimalColumn(CSDB::getMarketCapitalisation, CSDB::setMarketCapitalisation),
+            new DecimalColumn(CSDB::getMarketCapitalisationEuro, CSDB::setMarketCapitalisationEuro),
+            new DateColumn(CSDB::getMaturityDate, CSDB::setMaturityDate),
+            new DictionaryColumn(CSDB::getNominalCurrency, CSDB::setNominalCurrency),
+            new DecimalColumn(CSDB::getNominalValue, CSDB::setNominalValue),
+            new DecimalColumn(CSDB::getPoolFactor, CSDB::setPoolFactor),
+            new DecimalColumn(CSDB::getPriceValue, CSDB::setPriceValue),
+            new DateColumn(CSDB::getPriceValueDate, CSDB::setPriceValueDate),
+            new DictionaryColumn(CSDB::getPriceValueType, CSDB::setPriceValueType),
+            new DictionaryColumn(CSDB::getPrimaryAssetClassification, CSDB::setPrimaryAssetClassification),
+            new DictionaryColumn(CSDB::getQuotationBasis, CSDB::setQuotationBasis),
+            new DictionaryColumn(CSDB::getSecurityStatus, CSDB::setSecurityStatus),
+            new DateColumn(CSDB::getSecurityStatusDate, CSDB::setSecurityStatusDate),
+            new TextColumn(CSDB::getShortName, CSDB::setShortName),
+            new DateColumn(CSDB::getSplitDate, CSDB::setSplitDate),
+            new DecimalColumn(CSDB::getSplitFactor, CSDB::setSplitFactor),
+            new DecimalColumn(CSDB::getYieldToMaturity, CSDB::setYieldToMaturity),
+            new DecimalColumn(CSDB::getDerivedIncomeEuro, CSDB::setDerivedIncomeEuro),
+            new DictionaryColumn(CSDB::getDerivedIncomeFrequency, CSDB::setDerivedIncomeFrequency),
+            new DecimalColumn(CSDB::getDividendIncomeEuro, CSDB::setDividendIncomeEuro),
+            new DictionaryColumn(CSDB::getDividendIncomeFrequency, CSDB::setDividendIncomeFrequency),
+            new DecimalColumn(CSDB::getRedemptionPrice, CSDB::setRedemptionPrice),
+            new DecimalColumn(CSDB::getNumberOutstanding, CSDB::setNumberOutstanding),
+            new DecimalColumn(CSDB::getAveragePrice1, CSDB::setAveragePrice1),
+            new DecimalColumn(CSDB::getAveragePrice2, CSDB::setAveragePrice2));
+    private int rowCount;
+
+    /**
+     * Appends the given record and returns its row number.
+     */
+    public int append(final CSDB csdb) {
+        lock.writeLock().lock();
+        try {
+            final int row = rowCount;
+            identifiers.write(csdb, row);
+            periods.write(csdb, row);
+            versions.write(csdb, row);
+            for (final Column attribute : attributes) {
+                attribute.write(csdb, row);
+            }
+            rowCount++;
+            return row;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the record of an existing row with the given record.
+     */
+    public void set(final int row, final CSDB csdb) {
+        lock.writeLock().lock();
+        try {
+            if (row < 0 || row >= rowCount) throw new IndexOutOfBoundsException("Row " + row + " does not exist");
+            identifiers.write(csdb, row);
+            periods.write(csdb, row);
+            versions.write(csdb, row);
+            for (final Column attribute : attributes) {
+                attribute.write(csdb, row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public CSDB read(final int row) {
+        lock.readLock().lock();
+        try {
+            if (row < 0 || row >= rowCount) throw new IndexOutOfBoundsException("Row " + row + " does not exist");
+            final CSDB csdb = new CSDB(new CSDBKey(identifiers.readString(row), periods.readInt(row), versions.readInt(row)));
+            for (final AttributeColumn attribute : attributes) {
+                attribute.read(csdb, row);
+            }
+            return csdb;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int rowCount() {
+        lock.readLock().lock();
+        try {
+            return rowCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A column of fixed width slots, which are allocated in segments of direct memory.
+     */
+    private abstract static class Column {
+        private final int width;
+        private ByteBuffer[] segments = new ByteBuffer[0];
+
+        private Column(final int width) {
+            this.width = width;
+        }
+
+        abstract void write(final CSDB csdb, final int row);
+
+        ByteBuffer segment(final int row) {
+            final int segment = row / SEGMENT_ROWS;
+            if (segment == segments.length) {
+                segments = Arrays.copyOf(segments, segment + 1);
+                segments[segment] = ByteBuffer.allocateDirect(SEGMENT_ROWS * width);
+            }
+            return segments[segment];
+        }
+
+        int position(final int row) {
+            return row % SEGMENT_ROWS * width;
+        }
+    }
+
+    /**
+     * A column of an attribute which is set on the rebuilt record.
+     */
+    private abstract static class AttributeColumn extends Column {
+        private AttributeColumn(final int width) {
+            super(width);
+        }
+
+        abstract void read(final CSDB csdb, final int row);
+    }
+
+    private static final class IntColumn extends Column {
+        private final Function<CSDB, Integer> getter;
+
+        private IntColumn(final Function<CSDB, Integer> getter) {
+            super(Integer.BYTES);
+            this.getter = getter;
+        }
+
+        @Override
+        void write(final CSDB csdb, final int row) {
+            segment(row).putInt(position(row), getter.apply(csdb));
+        }
+
+        int readInt(final int row) {
+            return segment(row).getInt(position(row));
+        }
+    }
+
+    private static final class DateColumn extends AttributeColumn {
+        private static final int NULL_DATE = Integer.MIN_VALUE;
+        private final Function<CSDB, LocalDate> getter;
+        private final BiConsumer<CSDB, LocalDate> setter;
+
+        private DateColumn(final Function<CSDB, LocalDate> getter, final BiConsumer<CSDB, LocalDate> setter) {
+            super(Integer.BYTES);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        void write(final CSDB csdb, final int row) {
+            final LocalDate date = getter.apply(csdb);
+            segment(row).putInt(position(row), date == null ? NULL_DATE : (int) date.toEpochDay());
+        }
+
+        @Override
+        void read(final CSDB csdb, final int row) {
+            final int epochDay = segment(row).getInt(position(row));
+            if (epochDay != NULL_DATE) setter.accept(csdb, LocalDate.ofEpochDay(epochDay));
+        }
+    }
+
+    private static final class DecimalColumn extends AttributeColumn {
+        private static final byte NULL_SCALE = Byte.MIN_VALUE;
+        private static final byte OVERFLOW_SCALE = Byte.MAX_VALUE;
+        private final Map<Integer, BigDecimal> overflow = new HashMap<>();
+        private final Function<CSDB, BigDecimal> getter;
+        private final BiConsumer<CSDB, BigDecimal> setter;
+
+        private DecimalColumn(final Function<CSDB, BigDecimal> getter, final BiConsumer<CSDB, BigDecimal> setter) {
+            super(Long.BYTES + Byte.BYTES);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        void write(final CSDB csdb, final int row) {
+            final BigDecimal decimal = getter.apply(csdb);
+            final ByteBuffer segment = segment(row);
+            final int position = position(row);
+            // A replaced record may have left a value which did not fit
+            overflow.remove(row);
+            if (decimal == null) {
+                segment.put(position + Long.BYTES, NULL_SCALE);
+            } else if (decimal.unscaledValue().bitLength() < Long.SIZE && decimal.scale() > NULL_SCALE && decimal.scale() < OVERFLOW_SCALE) {
+                segment.putLong(position, decimal.unscaledValue().longValue());
+                segment.put(position + Long.BYTES, (byte) decimal.scale());
+            } else {
+                segment.put(position + Long.BYTES, OVERFLOW_SCALE);
+                overflow.put(row, decimal);
+            }
+        }
+
+        @Override
+        void read(final CSDB csdb, final int row) {
+            final ByteBuffer segment = segment(row);
+            final int position = position(row);
+            final byte scale = segment.get(position + Long.BYTES);
+            if (scale == NULL_SCALE) return;
+            setter.accept(csdb, scale == OVERFLOW_SCALE ? overflow.get(row) : BigDecimal.valueOf(segment.getLong(position), scale));
+        }
+    }
+
+    private static final class DictionaryColumn extends AttributeColumn {
+        private static final int NULL_CODE = 0;
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final Function<CSDB, String> getter;
+        private final BiConsumer<CSDB, String> setter;
+
+        private DictionaryColumn(final Function<CSDB, String> getter, final BiConsumer<CSDB, String> setter) {
+            super(Integer.BYTES);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        void write(final CSDB csdb, final int row) {
+            final String value = getter.apply(csdb);
+            final int code;
+            if (value == null) {
+                code = NULL_CODE;
+            } else {
+                code = codes.computeIfAbsent(value, newValue -> {
+                    values.add(newValue);
+                    return values.size();
+                });
+            }
+            segment(row).putInt(position(row), code);
+        }
+
+        @Override
+        void read(final CSDB csdb, final int row) {
+            final int code = segment(row).getInt(position(row));
+            if (code != NULL_CODE) setter.accept(csdb, values.get(code - 1));
+        }
+    }
+
+    private final class TextColumn extends AttributeColumn {
+        private static final int NULL_LENGTH = -1;
+        private final Function<CSDB, String> getter;
+        private final BiConsumer<CSDB, String> setter;
+
+        private TextColumn(final Function<CSDB, String> getter, final BiConsumer<CSDB, String> setter) {
+            super(Long.BYTES + Integer.BYTES);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        void write(final CSDB csdb, final int row) {
+            final String value = getter.apply(csdb);
+            final ByteBuffer segment = segment(row);
+            final int position = position(row);
+            if (value == null) {
+                segment.putInt(position + Long.BYTES, NULL_LENGTH);
+            } else {
+                final byte[] bytes = value.getBytes(UTF_8);
+                // The text of a replaced record is overwritten if the new text fits, which is the case for an unchanged value
+                final int replacedLength = row < rowCount ? segment.getInt(position + Long.BYTES) : NULL_LENGTH;
+                if (bytes.length <= replacedLength) textArea.write(segment.getLong(position), bytes);
+                else segment.putLong(position, textArea.append(bytes));
+                segment.putInt(position + Long.BYTES, bytes.length);
+            }
+        }
+
+        @Override
+        void read(final CSDB csdb, final int row) {
+            final String value = readString(row);
+            if (value != null) setter.accept(csdb, value);
+        }
+
+        String readString(final int row) {
+            final ByteBuffer segment = segment(row);
+            final int position = position(row);
+            final int length = segment.getInt(position + Long.BYTES);
+            return length == NULL_LENGTH ? null : textArea.read(segment.getLong(position), length);
+        }
+    }
+
+    /**
+     * Holds the UTF-8 bytes of all text columns in segments of direct memory. An address consists of the segment index in the upper and the
+     * offset within the segment in the lower half of a long.
+     */
+    private static final class TextArea {
+        private final List<ByteBuffer> segments = new ArrayList<>();
+        private ByteBuffer current;
+
+        long append(final byte[] bytes) {
+            if (current == null || current.remaining() < bytes.length) {
+                current = ByteBuffer.allocateDirect(Math.max(TEXT_SEGMENT_BYTES, bytes.length));
+                segments.add(current);
+            }
+            final long address = (long) (segments.size() - 1) << Integer.SIZE | current.position();
+            current.put(bytes);
+            return address;
+        }
+
+        void write(final long address, final byte[] bytes) {
+            final ByteBuffer segment = segments.get((int) (address >>> Integer.SIZE)).duplicate();
+            segment.position((int) address);
+            segment.put(bytes);
+        }
+
+        String read(final long address, final int length) {
+            final ByteBuffer segment = segments.get((int) (address >>> Integer.SIZE)).duplicate();
+            final byte[] bytes = new byte[length];
+            segment.position((int) address);
+            segment.get(bytes);
+            return new String(bytes, UTF_8);
+        }
+    }
+}
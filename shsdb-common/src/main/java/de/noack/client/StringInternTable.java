@@ -0,0 +1,41 @@
+package de.noack.client;
+
+/**
+ * This class represents a bounded table of strings for one column with few distinct values, e.g. currencies or sectors. A value is looked up by
+ * its characters, so that a string is only created the first time a value is seen. The table is direct mapped: a value whose slot is taken by
+ * another one replaces it, which keeps the size of the table fixed even if a column turns out to have many distinct values. Strings are
+ * immutable, so that the table may be shared between threads without synchronization.
+ *
+ * @author davidnoack
+ */
+public final class StringInternTable {
+    private final String[] strings;
+    private final int mask;
+
+    public StringInternTable(final int capacity) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("Capacity must be a power of two");
+        this.strings = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public String intern(final char[] chars, final int offset, final int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        final int slot = (hash ^ hash >>> 16) & mask;
+        final String interned = strings[slot];
+        if (interned != null && contentEquals(interned, chars, offset, length)) return interned;
+        final String string = new String(chars, offset, length);
+        strings[slot] = string;
+        return string;
+    }
+
+    private static boolean contentEquals(final String string, final char[] chars, final int offset, final int length) {
+        if (string.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (string.charAt(i) != chars[offset + i]) return false;
+        }
+        return true;
+    }
+}
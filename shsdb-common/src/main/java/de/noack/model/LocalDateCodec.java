@@ -0,0 +1,125 @@
+package de.noack.model;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.ResolverStyle;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
+
+/**
+ * This class represents a codec for dates in the fixed layout yyyy-MM-dd which works on character and byte ranges directly. Parsed dates are
+ * kept in a small direct mapped cache, because CSDB data repeats a few thousand distinct dates across millions of records. Dates which do not
+ * follow the fixed layout, e.g. years beyond 9999, are handed over to {@link java.time.format.DateTimeFormatter#ISO_LOCAL_DATE}. The cache holds
+ * immutable {@link LocalDate} objects only and may therefore be shared between threads without synchronization.
+ *
+ * @author davidnoack
+ */
+public final class LocalDateCodec {
+    public static final int LENGTH = 10;
+    private static final int CACHE_BITS = 14;
+    private static final LocalDate[] CACHE = new LocalDate[1 << CACHE_BITS];
+
+    private LocalDateCodec() {
+    }
+
+    public static LocalDate parse(final char[] chars, final int offset, final int length, final ResolverStyle resolverStyle) {
+        if (length == LENGTH && chars[offset + 4] == '-' && chars[offset + 7] == '-') {
+            final int year = digits(chars[offset], chars[offset + 1], chars[offset + 2], chars[offset + 3]);
+            final int month = digits(chars[offset + 5], chars[offset + 6]);
+            final int day = digits(chars[offset + 8], chars[offset + 9]);
+            if ((year | month | day) >= 0) return of(year, month, day, resolverStyle);
+        }
+        return parseIso(new String(chars, offset, length), resolverStyle);
+    }
+
+    public static LocalDate parse(final byte[] bytes, final int offset, final int length, final ResolverStyle resolverStyle) {
+        if (length == LENGTH && bytes[offset + 4] == '-' && bytes[offset + 7] == '-') {
+            final int year = digits(bytes[offset], bytes[offset + 1], bytes[offset + 2], bytes[offset + 3]);
+            final int month = digits(bytes[offset + 5], bytes[offset + 6]);
+            final int day = digits(bytes[offset + 8], bytes[offset + 9]);
+            if ((year | month | day) >= 0) return of(year, month, day, resolverStyle);
+        }
+        return parseIso(new String(bytes, offset, length, US_ASCII), resolverStyle);
+    }
+
+    /**
+     * Returns whether the given date can be written in the fixed layout of {@link #LENGTH} characters.
+     */
+    public static boolean hasFixedLayout(final LocalDate date) {
+        return date.getYear() >= 0 && date.getYear() <= 9999;
+    }
+
+    public static void write(final LocalDate date, final char[] target, final int offset) {
+        if (!hasFixedLayout(date)) throw new IllegalArgumentException("Date " + date + " does not have a fixed layout");
+        final int year = date.getYear();
+        final int month = date.getMonthValue();
+        final int day = date.getDayOfMonth();
+        target[offset] = (char) ('0' + year / 1000);
+        target[offset + 1] = (char) ('0' + year / 100 % 10);
+        target[offset + 2] = (char) ('0' + year / 10 % 10);
+        target[offset + 3] = (char) ('0' + year % 10);
+        target[offset + 4] = '-';
+        target[offset + 5] = (char) ('0' + month / 10);
+        target[offset + 6] = (char) ('0' + month % 10);
+        target[offset + 7] = '-';
+        target[offset + 8] = (char) ('0' + day / 10);
+        target[offset + 9] = (char) ('0' + day % 10);
+    }
+
+    public static void write(final LocalDate date, final byte[] target, final int offset) {
+        if (!hasFixedLayout(date)) throw new IllegalArgumentException("Date " + date + " does not have a fixed layout");
+        final int year = date.getYear();
+        final int month = date.getMonthValue();
+        final int day = date.getDayOfMonth();
+        target[offset] = (byte) ('0' + year / 1000);
+        target[offset + 1] = (byte) ('0' + year / 100 % 10);
+        target[offset + 2] = (byte) ('0' + year / 10 % 10);
+        target[offset + 3] = (byte) ('0' + year % 10);
+        target[offset + 4] = '-';
+        target[offset + 5] = (byte) ('0' + month / 10);
+        target[offset + 6] = (byte) ('0' + month % 10);
+        target[offset + 7] = '-';
+        target[offset + 8] = (byte) ('0' + day / 10);
+        target[offset + 9] = (byte) ('0' + day % 10);
+    }
+
+    private static LocalDate of(final int year, final int month, final int day, final ResolverStyle resolverStyle) {
+        if (resolverStyle == ResolverStyle.LENIENT) return LocalDate.of(year, 1, 1).plusMonths(month - 1L).plusDays(day - 1L);
+        final int index = (year << 9 | month << 5 | day) * 0x9E3779B1 >>> Integer.SIZE - CACHE_BITS;
+        final LocalDate cached = CACHE[index];
+        if (cached != null && cached.getDayOfMonth() == day && cached.getMonthValue() == month && cached.getYear() == year) return cached;
+        final LocalDate date = create(year, month, day, resolverStyle);
+        // Dates whose day of month has been adjusted must not be returned for a strict lookup later on
+        if (date.getDayOfMonth() == day) CACHE[index] = date;
+        return date;
+    }
+
+    private static LocalDate create(final int year, final int month, final int day, final ResolverStyle resolverStyle) {
+        // A smart resolver changes an invalid day of month to the last valid one, as DateTimeFormatter does as well
+        if (resolverStyle == ResolverStyle.SMART && month >= 1 && month <= 12 && day > 28 && day <= 31) {
+            return LocalDate.of(year, month, Math.min(day, Month.of(month).length(Year.isLeap(year))));
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    private static LocalDate parseIso(final String text, final ResolverStyle resolverStyle) {
+        return LocalDate.parse(text, ISO_LOCAL_DATE.withResolverStyle(resolverStyle));
+    }
+
+    /**
+     * Returns the value of the given two digits or a negative value if one of them is not a digit.
+     */
+    private static int digits(final int first, final int second) {
+        final int tens = first - '0';
+        final int ones = second - '0';
+        return (tens | ones | 9 - tens | 9 - ones) < 0 ? -1 : tens * 10 + ones;
+    }
+
+    private static int digits(final int first, final int second, final int third, final int fourth) {
+        final int high = digits(first, second);
+        final int low = digits(third, fourth);
+        return (high | low) < 0 ? -1 : high * 100 + low;
+    }
+}
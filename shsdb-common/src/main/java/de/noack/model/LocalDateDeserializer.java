@@ -1,11 +1,13 @@
 package de.noack.model;
 
 import org.apache.pulsar.shade.com.fasterxml.jackson.core.JsonParser;
+import org.apache.pulsar.shade.com.fasterxml.jackson.core.JsonToken;
 import org.apache.pulsar.shade.com.fasterxml.jackson.databind.DeserializationContext;
 import org.apache.pulsar.shade.com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.format.ResolverStyle;
 
 /**
  * This class is used to deserialize {@link LocalDate} objects.
@@ -22,6 +24,10 @@ public class LocalDateDeserializer extends StdDeserializer<LocalDate> {
     @Override
     public LocalDate deserialize(final JsonParser jp, final DeserializationContext ctxt)
             throws IOException {
+        // The characters of a string token are parsed in place without creating a string first
+        if (jp.hasToken(JsonToken.VALUE_STRING)) {
+            return LocalDateCodec.parse(jp.getTextCharacters(), jp.getTextOffset(), jp.getTextLength(), ResolverStyle.STRICT);
+        }
         return LocalDate.parse(jp.readValueAs(String.class));
     }
 }
\ No newline at end of file
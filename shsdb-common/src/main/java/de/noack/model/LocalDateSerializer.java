@@ -16,6 +16,7 @@ import java.time.format.DateTimeFormatter;
 public class LocalDateSerializer extends StdSerializer<LocalDate> {
 
     private static final long serialVersionUID = 1L;
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[LocalDateCodec.LENGTH]);
 
     public LocalDateSerializer() {
         super(LocalDate.class);
@@ -23,6 +24,13 @@ public class LocalDateSerializer extends StdSerializer<LocalDate> {
 
     @Override
     public void serialize(final LocalDate value, final JsonGenerator gen, final SerializerProvider sp) throws IOException {
-        gen.writeString(value.format(DateTimeFormatter.ISO_LOCAL_DATE));
+        if (!LocalDateCodec.hasFixedLayout(value)) {
+            gen.writeString(value.format(DateTimeFormatter.ISO_LOCAL_DATE));
+            return;
+        }
+        // The generator copies the characters, so that the buffer can be reused right away
+        final char[] buffer = BUFFER.get();
+        LocalDateCodec.write(value, buffer, 0);
+        gen.writeString(buffer, 0, LocalDateCodec.LENGTH);
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package de.noack.model;
+
+import lombok.Value;
+
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * This class represents one page of records read from a topic in the order of the topic. The token "next" is opaque to clients: it encodes the
+ * position after the last record of the page within the commit log, e.g. a message ID or an offset, and is handed back to continue reading. It is
+ * null once the end of the topic has been reached.
+ *
+ * @author davidnoack
+ */
+@Value
+public class Page<T> {
+    public static final int DEFAULT_LIMIT = 1000;
+    public static final int MAX_LIMIT = 10000;
+    private static final Base64.Encoder TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder TOKEN_DECODER = Base64.getUrlDecoder();
+    List<T> records;
+    String next;
+
+    /**
+     * Returns the given limit of records per page or the default one, if none has been given.
+     */
+    public static int limitOf(final Integer limit) {
+        if (limit == null) return DEFAULT_LIMIT;
+        if (limit < 1 || limit > MAX_LIMIT) throw new IllegalArgumentException("Limit has to be between 1 and " + MAX_LIMIT + "!");
+        return limit;
+    }
+
+    public static String tokenOf(final byte[] position) {
+        return TOKEN_ENCODER.encodeToString(position);
+    }
+
+    public static byte[] positionOf(final String token) {
+        try {
+            return TOKEN_DECODER.decode(token);
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Token " + token + " is invalid!");
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package de.noack.client;
+
+import de.noack.model.CSDB;
+import de.noack.model.CSDBKey;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author davidnoack
+ */
+public class CsdbColumnStoreTest {
+    private static final String[] CODES = {"EUR", "USD", "S.122", "F.3", ""};
+
+    @Test
+    public void readsWhatHasBeenAppended() {
+        final CsdbColumnStore store = new CsdbColumnStore();
+        final Random random = new Random(1);
+        final List<CSDB> csdbs = new ArrayList<>();
+        // More rows than one segment holds, so that every column allocates a second one
+        for (int i = 0; i < 20_000; i++) {
+            final CSDB csdb = randomCsdb(i, random);
+            csdbs.add(csdb);
+            assertEquals(i, store.append(csdb));
+        }
+        assertEquals(csdbs.size(), store.rowCount());
+        for (int row = 0; row < csdbs.size(); row++) {
+            assertEquals(csdbs.get(row), store.read(row));
+        }
+    }
+
+    @Test
+    public void keepsNullAttributes() {
+        final CsdbColumnStore store = new CsdbColumnStore();
+        final CSDB csdb = new CSDB(new CSDBKey("XS0000000001", 201906, 1));
+        assertEquals(csdb, store.read(store.append(csdb)));
+    }
+
+    @Test
+    public void keepsDecimalsWhichDoNotFitIntoALong() {
+        final CsdbColumnStore store = new CsdbColumnStore();
+        final BigDecimal[] decimals = {new BigDecimal("123456789012345678901234567890.5"), BigDecimal.valueOf(Long.MAX_VALUE),
+                BigDecimal.valueOf(Long.MIN_VALUE), new BigDecimal(BigInteger.ONE.shiftLeft(63)), BigDecimal.valueOf(1, 127),
+                BigDecimal.valueOf(1, 126), BigDecimal.valueOf(1, -128), BigDecimal.valueOf(1, -127), new BigDecimal("1E+3"), new BigDecimal("-0.00")};
+        for (final BigDecimal decimal : decimals) {
+            final CSDB csdb = new CSDB(new CSDBKey("XS0000000001", 201906, 1));
+            csdb.setAmountOutstanding(decimal);
+            csdb.setAveragePrice2(decimal.negate());
+            final CSDB read = store.read(store.append(csdb));
+            // Scale has to be kept as well, so that the value is compared with equals instead of compareTo
+            assertEquals(decimal, read.getAmountOutstanding(), decimal.toString());
+            assertEquals(decimal.negate(), read.getAveragePrice2(), decimal.toString());
+        }
+    }
+
+    @Test
+    public void replacesARecordInPlace() {
+        final CsdbColumnStore store = new CsdbColumnStore();
+        final CSDB original = new CSDB(new CSDBKey("XS0000000001", 201906, 1));
+        original.setIssuerName("A rather long issuer name");
+        original.setShortName("Short");
+        original.setAmountOutstanding(new BigDecimal("123456789012345678901234567890"));
+        original.setNominalCurrency("EUR");
+        original.setIssueDate(LocalDate.of(2019, 6, 30));
+        final int row = store.append(original);
+        final CSDB other = new CSDB(new CSDBKey("XS0000000002", 201906, 1));
+        other.setIssuerName("Neighbour");
+        store.append(other);
+
+        // Shorter text is written to the area of the replaced text, longer text is appended and missing values become null
+        final CSDB replacement = new CSDB(new CSDBKey("XS0000000001", 201906, 2));
+        replacement.setIssuerName("Shorter name");
+        replacement.setShortName("A short name which is longer now");
+        replacement.setAmountOutstanding(new BigDecimal("1.5"));
+        replacement.setNominalCurrency("USD");
+        store.set(row, replacement);
+        assertEquals(replacement, store.read(row));
+        assertEquals(other, store.read(row + 1));
+        assertEquals(2, store.rowCount());
+
+        // A value which has been null before gets a text of its own
+        store.set(row, original);
+        assertEquals(original, store.read(row));
+        assertEquals(other, store.read(row + 1));
+    }
+
+    @Test
+    public void keepsTextOfAnyEncoding() {
+        final CsdbColumnStore store = new CsdbColumnStore();
+        final CSDB csdb = new CSDB(new CSDBKey("XS0000000001", 201906, 1));
+        csdb.setIssuerName("Société Générale – Ünternehmen 株式会社 💶");
+        csdb.setShortName("");
+        assertEquals(csdb, store.read(store.append(csdb)));
+    }
+
+    @Test
+    public void rejectsRowsWhichDoNotExist() {
+        final CsdbColumnStore store = new CsdbColumnStore();
+        store.append(new CSDB(new CSDBKey("XS0000000001", 201906, 1)));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.read(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.read(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.set(1, new CSDB(new CSDBKey("XS0000000002", 201906, 1))));
+    }
+
+    /**
+     * Sets every attribute of a CSDB to a random value or null, depending on its type.
+     */
+    static CSDB randomCsdb(final int i, final Random random) {
+        final CSDB csdb = new CSDB(new CSDBKey(String.format("XS%010d", i), 201901 + random.nextInt(12), random.nextInt(5)));
+        try {
+            for (final Field field : CSDB.class.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.getType() == CSDBKey.class) continue;
+                field.setAccessible(true);
+                field.set(csdb, random.nextInt(5) == 0 ? null : randomValue(field.getType(), random));
+            }
+        } catch (final IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        return csdb;
+    }
+
+    private static Object randomValue(final Class<?> type, final Random random) {
+        if (type == BigDecimal.class) {
+            if (random.nextInt(20) == 0) return new BigDecimal(new BigInteger(100, random), random.nextInt(10));
+            return BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(20) - 2);
+        }
+        if (type == LocalDate.class) return LocalDate.ofEpochDay(random.nextInt(30_000) - 5_000);
+        if (type == String.class) {
+            if (random.nextBoolean()) return CODES[random.nextInt(CODES.length)];
+            return "Text " + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+        }
+        throw new IllegalArgumentException("Attributes of type " + type + " are not supported");
+    }
+}
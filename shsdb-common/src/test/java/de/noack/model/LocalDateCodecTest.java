@@ -0,0 +1,106 @@
+package de.noack.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.ResolverStyle;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author davidnoack
+ */
+public class LocalDateCodecTest {
+
+    @Test
+    public void parsesLikeIsoLocalDateForEveryResolverStyle() {
+        for (final ResolverStyle resolverStyle : ResolverStyle.values()) {
+            for (final int year : new int[]{1900, 1999, 2000, 2019, 2020, 9999}) {
+                for (int month = 0; month <= 13; month++) {
+                    for (int day = 0; day <= 32; day++) {
+                        assertParsedLikeIsoLocalDate(String.format("%04d-%02d-%02d", year, month, day), resolverStyle);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parsesDatesWithoutFixedLayoutLikeIsoLocalDate() {
+        for (final String text : new String[]{"+10000-01-01", "2019-1-01", "2019-01-1", "2019/01/01", "2O19-01-01", "2019-0a-01", "-001-01-01", ""}) {
+            assertParsedLikeIsoLocalDate(text, ResolverStyle.SMART);
+            assertParsedLikeIsoLocalDate(text, ResolverStyle.STRICT);
+        }
+    }
+
+    @Test
+    public void changesAnInvalidDayOfMonthToTheLastValidOneForSmartOnly() {
+        assertEquals(LocalDate.of(2019, 2, 28), parse("2019-02-31", ResolverStyle.SMART));
+        assertEquals(LocalDate.of(2020, 2, 29), parse("2020-02-30", ResolverStyle.SMART));
+        assertEquals(LocalDate.of(2019, 4, 30), parse("2019-04-31", ResolverStyle.SMART));
+        assertThrows(DateTimeException.class, () -> parse("2019-02-31", ResolverStyle.STRICT));
+        assertThrows(DateTimeException.class, () -> parse("2019-02-32", ResolverStyle.SMART));
+    }
+
+    @Test
+    public void doesNotServeAnAdjustedDateToAStrictLookup() {
+        // The adjusted date must not be cached for the text it has been parsed from
+        assertEquals(LocalDate.of(2021, 6, 30), parse("2021-06-31", ResolverStyle.SMART));
+        assertThrows(DateTimeException.class, () -> parse("2021-06-31", ResolverStyle.STRICT));
+        assertEquals(LocalDate.of(2021, 6, 30), parse("2021-06-30", ResolverStyle.STRICT));
+    }
+
+    @Test
+    public void parsesCharactersAndBytesWithinARange() {
+        final String text = "x;2019-06-30;y";
+        assertEquals(LocalDate.of(2019, 6, 30), LocalDateCodec.parse(text.toCharArray(), 2, LocalDateCodec.LENGTH, ResolverStyle.STRICT));
+        assertEquals(LocalDate.of(2019, 6, 30), LocalDateCodec.parse(text.getBytes(US_ASCII), 2, LocalDateCodec.LENGTH, ResolverStyle.STRICT));
+    }
+
+    @Test
+    public void writesWhatItParses() {
+        final char[] chars = new char[LocalDateCodec.LENGTH + 1];
+        final byte[] bytes = new byte[LocalDateCodec.LENGTH + 1];
+        for (final LocalDate date : new LocalDate[]{LocalDate.of(0, 1, 1), LocalDate.of(1999, 12, 31), LocalDate.of(2020, 2, 29),
+                LocalDate.of(9999, 12, 31)}) {
+            LocalDateCodec.write(date, chars, 1);
+            LocalDateCodec.write(date, bytes, 1);
+            assertEquals(ISO_LOCAL_DATE.format(date), new String(chars, 1, LocalDateCodec.LENGTH));
+            assertEquals(ISO_LOCAL_DATE.format(date), new String(bytes, 1, LocalDateCodec.LENGTH, US_ASCII));
+            assertEquals(date, LocalDateCodec.parse(chars, 1, LocalDateCodec.LENGTH, ResolverStyle.STRICT));
+            assertEquals(date, LocalDateCodec.parse(bytes, 1, LocalDateCodec.LENGTH, ResolverStyle.STRICT));
+        }
+    }
+
+    @Test
+    public void rejectsWritingDatesWithoutFixedLayout() {
+        final LocalDate date = LocalDate.of(10000, 1, 1);
+        assertFalse(LocalDateCodec.hasFixedLayout(date));
+        assertThrows(IllegalArgumentException.class, () -> LocalDateCodec.write(date, new char[LocalDateCodec.LENGTH], 0));
+        assertThrows(IllegalArgumentException.class, () -> LocalDateCodec.write(date, new byte[LocalDateCodec.LENGTH], 0));
+    }
+
+    private static LocalDate parse(final String text, final ResolverStyle resolverStyle) {
+        return LocalDateCodec.parse(text.toCharArray(), 0, text.length(), resolverStyle);
+    }
+
+    private static void assertParsedLikeIsoLocalDate(final String text, final ResolverStyle resolverStyle) {
+        LocalDate expected;
+        try {
+            expected = LocalDate.parse(text, ISO_LOCAL_DATE.withResolverStyle(resolverStyle));
+        } catch (final DateTimeException e) {
+            expected = null;
+        }
+        final String message = text + " " + resolverStyle;
+        if (expected == null) {
+            assertThrows(DateTimeException.class, () -> parse(text, resolverStyle), message);
+            assertThrows(DateTimeException.class, () -> LocalDateCodec.parse(text.getBytes(US_ASCII), 0, text.length(), resolverStyle), message);
+        } else {
+            assertEquals(expected, parse(text, resolverStyle), message);
+            assertEquals(expected, LocalDateCodec.parse(text.getBytes(US_ASCII), 0, text.length(), resolverStyle), message);
+        }
+    }
+}
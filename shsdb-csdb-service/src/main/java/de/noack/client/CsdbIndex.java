@@ -0,0 +1,98 @@
+package de.noack.client;
+
+import de.noack.model.CSDBKey;
+import de.noack.model.CsdbQuery;
+
+import java.util.*;
+
+/**
+ * This class represents a secondary index over the {@link CSDBKey}s of the topic "csdb-transformed". It keeps the position of the latest record of
+ * every message key, e.g. its offset or its row within a store, and the message keys per period, ISIN and version. A {@link CsdbQuery} is answered
+ * from the smallest of the sets selected by its criteria, so that only the records matching all criteria have to be read. Instances are safe for
+ * use by multiple threads.
+ *
+ * @author davidnoack
+ */
+public class CsdbIndex<P> {
+    private final Map<String, Entry<P>> entries = new HashMap<>();
+    private final NavigableMap<Integer, Set<String>> messageKeysByPeriod = new TreeMap<>();
+    private final NavigableMap<String, Set<String>> messageKeysByIsin = new TreeMap<>();
+    private final Map<Integer, Set<String>> messageKeysByVersion = new HashMap<>();
+
+    public synchronized void put(final String messageKey, final CSDBKey csdbKey, final P position) {
+        final Entry<P> previousEntry = entries.put(messageKey, new Entry<>(csdbKey, position));
+        if (previousEntry != null) {
+            // The message key is derived from the CSDB key, so that only the position of a replaced record changes
+            if (previousEntry.csdbKey.equals(csdbKey)) return;
+            removeFrom(messageKeysByPeriod, previousEntry.csdbKey.getPeriod(), messageKey);
+            removeFrom(messageKeysByIsin, previousEntry.csdbKey.getIdentifier(), messageKey);
+            removeFrom(messageKeysByVersion, previousEntry.csdbKey.getVersion(), messageKey);
+        }
+        messageKeysByPeriod.computeIfAbsent(csdbKey.getPeriod(), period -> new HashSet<>()).add(messageKey);
+        messageKeysByIsin.computeIfAbsent(csdbKey.getIdentifier(), isin -> new HashSet<>()).add(messageKey);
+        messageKeysByVersion.computeIfAbsent(csdbKey.getVersion(), version -> new HashSet<>()).add(messageKey);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the positions of all records matching the query, ordered by their message key.
+     */
+    public synchronized List<P> find(final CsdbQuery query) {
+        Collection<Set<String>> candidates = Collections.singletonList(entries.keySet());
+        if (query.getPeriodFrom() != null || query.getPeriodTo() != null) {
+            final int periodFrom = query.getPeriodFrom() != null ? query.getPeriodFrom() : Integer.MIN_VALUE;
+            final int periodTo = query.getPeriodTo() != null ? query.getPeriodTo() : Integer.MAX_VALUE;
+            candidates = smallerOf(candidates, periodFrom <= periodTo
+                    ? messageKeysByPeriod.subMap(periodFrom, true, periodTo, true).values()
+                    : Collections.emptySet());
+        }
+        if (query.getIsinPrefix() != null) {
+            final String isinPrefix = query.getIsinPrefix();
+            candidates = smallerOf(candidates, messageKeysByIsin.subMap(isinPrefix, true, isinPrefix + Character.MAX_VALUE, false).values());
+        }
+        if (query.getVersion() != null) candidates = smallerOf(candidates, candidatesOf(messageKeysByVersion.get(query.getVersion())));
+        // The candidates of one criterion are disjoint, the remaining criteria are checked against the key of each candidate
+        final SortedMap<String, P> matches = new TreeMap<>();
+        for (final Set<String> messageKeys : candidates) {
+            for (final String messageKey : messageKeys) {
+                final Entry<P> entry = entries.get(messageKey);
+                if (query.matches(entry.csdbKey)) matches.put(messageKey, entry.position);
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    private static Collection<Set<String>> smallerOf(final Collection<Set<String>> candidates, final Collection<Set<String>> otherCandidates) {
+        return sizeOf(otherCandidates) < sizeOf(candidates) ? otherCandidates : candidates;
+    }
+
+    private static long sizeOf(final Collection<Set<String>> candidates) {
+        long size = 0;
+        for (final Set<String> messageKeys : candidates) {
+            size += messageKeys.size();
+        }
+        return size;
+    }
+
+    private static Collection<Set<String>> candidatesOf(final Set<String> messageKeys) {
+        return messageKeys != null ? Collections.singletonList(messageKeys) : Collections.emptySet();
+    }
+
+    private static <K> void removeFrom(final Map<K, Set<String>> messageKeysByValue, final K value, final String messageKey) {
+        final Set<String> messageKeys = messageKeysByValue.get(value);
+        if (messageKeys != null && messageKeys.remove(messageKey) && messageKeys.isEmpty()) messageKeysByValue.remove(value);
+    }
+
+    private static class Entry<P> {
+        private final CSDBKey csdbKey;
+        private final P position;
+
+        private Entry(final CSDBKey csdbKey, final P position) {
+            this.csdbKey = csdbKey;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package de.noack.client;
+
+import de.noack.commitlog.*;
+import de.noack.model.CSDB;
+import de.noack.model.CsdbQuery;
+import de.noack.model.Page;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import org.apache.pulsar.client.api.Schema;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import static de.noack.client.CsdbClient.isHeaderValid;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.UUID.randomUUID;
+
+/**
+ * This class represents the implementation of {@link CsdbClient} on top of the commit log chosen in the application.properties file. CSDB files
+ * are uploaded as line-aligned chunks to the {@link FileTopic} "csdb-vanilla", so that neither the service nor the broker has to hold a whole
+ * file. They are consumed by a shared subscription and transformed to records of the compacted topic "csdb-transformed", which are ordered by
+ * their identifier. The rows of one file are transformed in parallel chunks and published in their original order. Rows which cannot be validated
+ * or transformed are forwarded to the topic "csdb-rejected" instead of dropping the whole file. Single transformed records are looked up in a
+ * {@link TransformedCsdbStore} which tails the transformed topic, pages of transformed records are read in the order of the topic.
+ *
+ * @author davidnoack
+ */
+@ApplicationScoped
+public class CsdbLogClient implements CsdbClient {
+    private static final int MAX_POLLED_FILES = 16;
+    private static final int MAX_IN_FLIGHT_RECORDS = 10000;
+    private static final String LINE_NUMBER_PROPERTY = "lineNumber";
+    private static final int CHUNK_SIZE = 2000;
+    private static final int PARSER_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final int MAX_PENDING_CHUNKS = PARSER_PARALLELISM * 2;
+    private static final Jsonb JSONB = JsonbBuilder.create();
+    private static final ThreadLocal<CsvTokenizer> TOKENIZER = ThreadLocal.withInitial(() -> new CsvTokenizer(CSV_DELIMITER_CHAR));
+    @Inject
+    CommitLogProvider commitLogProvider;
+    @Inject
+    @ConfigProperty(name = "csdb.store.directory")
+    String storeDirectory;
+    @Inject
+    @ConfigProperty(name = "wireformat")
+    WireFormat wireFormat;
+    private FileTopic vanillaTopic;
+    private Topic<CSDB> transformedTopic;
+    private Topic<byte[]> rejectedTopic;
+    private ForkJoinPool parserPool;
+    private TransformedCsdbStore transformedCsdbStore;
+    private ConsumerLoop<byte[]> transformLoop;
+    private boolean isApplicationRunning;
+
+    void onStart(@Observes final StartupEvent ev) {
+        isApplicationRunning = true;
+        parserPool = new ForkJoinPool(PARSER_PARALLELISM);
+        try {
+            final CommitLogClient client = commitLogProvider.client();
+            vanillaTopic = new FileTopic(client.openTopic(VANILLA_TOPIC_NAME, TopicType.FILES, Schema.BYTES));
+            transformedTopic = client.openTopic(TRANSFORMED_TOPIC_NAME, TopicType.COMPACTED_RECORDS, wireFormat.schemaOf(CSDB.class));
+            rejectedTopic = client.openTopic(REJECTED_TOPIC_NAME, TopicType.RECORDS, Schema.BYTES);
+            transformedCsdbStore = new TransformedCsdbStore(transformedTopic, Paths.get(storeDirectory));
+            transformedCsdbStore.start();
+            transformLoop = new ConsumerLoop<>(VANILLA_SUBSCRIPTION_NAME,
+                    vanillaTopic.subscribe(VANILLA_SUBSCRIPTION_NAME, SubscriptionOptions.shared()), MAX_POLLED_FILES, this::transformFiles);
+            produceTransformedCsdb();
+        } catch (final IOException e) {
+            LOGGER.error("Error occurred during startup! Reason: {}", e.getMessage());
+        }
+    }
+
+    void onStop(@Observes final ShutdownEvent ev) {
+        if (!isApplicationRunning) return;
+        isApplicationRunning = false;
+        if (transformLoop != null) transformLoop.stop();
+        parserPool.shutdown();
+        try {
+            if (transformedCsdbStore != null) transformedCsdbStore.close();
+            if (vanillaTopic != null) vanillaTopic.close();
+            if (transformedTopic != null) transformedTopic.close();
+            if (rejectedTopic != null) rejectedTopic.close();
+        } catch (final IOException e) {
+            LOGGER.error("Error occurred during close! Reason: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public String produceVanillaCsdb(final InputStream Csdb) throws IOException {
+        final String messageKey = String.valueOf(randomUUID());
+        vanillaTopic.produce(messageKey, Csdb);
+        return messageKey;
+    }
+
+    @Override
+    public void allVanillaCsdbs(final OutputStream outputStream) {
+        try {
+            vanillaTopic.forEachFile((messageKey, csdb) -> copy(csdb, outputStream));
+        } catch (final IOException e) {
+            LOGGER.error("Error during reading from topic {} occurred. Reason: {}", VANILLA_TOPIC_NAME, e.getMessage());
+        }
+    }
+
+    @Override
+    public InputStream findVanillaCsdb(final String messageKey) {
+        try {
+            final InputStream csdb = vanillaTopic.find(messageKey);
+            if (csdb != null) return csdb;
+        } catch (final IOException e) {
+            LOGGER.error("Error during reading from topic {} occurred. Reason: {}", VANILLA_TOPIC_NAME, e.getMessage());
+        }
+        throw new RuntimeException("Message with id " + messageKey + " not found!");
+    }
+
+    private static void copy(final InputStream inputStream, final OutputStream outputStream) throws IOException {
+        final byte[] buffer = new byte[8192];
+        int readBytes;
+        while ((readBytes = inputStream.read(buffer)) >= 0) {
+            outputStream.write(buffer, 0, readBytes);
+        }
+    }
+
+    @Override
+    public void produceTransformedCsdb() {
+        transformLoop.start();
+    }
+
+    private void transformFiles(final List<LogRecord<byte[]>> records) throws IOException {
+        for (final LogRecord<byte[]> record : records) {
+            // Chunks are transformed with the trailer of their file, which is published once all of them have been persisted
+            if (FileTopic.isChunk(record)) continue;
+            // A file whose records could not be published fails the batch, which is consumed again
+            produceTransformedCsdb(record.getKey(), vanillaTopic.fileOf(record));
+        }
+    }
+
+    @Override
+    public void produceTransformedCsdb(final String vanillaMessageKey, final InputStream inputStream) throws IOException {
+        final ChunkPublisher chunkPublisher = new ChunkPublisher(vanillaMessageKey);
+        try (final BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream))) {
+            final String firstLine = bufferedReader.readLine();
+            if (firstLine == null || !isHeaderValid(firstLine)) {
+                LOGGER.error("Header of message with key {} is invalid. Skipping transformation.", vanillaMessageKey);
+                return;
+            }
+            // Compile the header once so that rows are mapped without any lookups
+            final CsdbMappingPlan mappingPlan;
+            try {
+                mappingPlan = CsdbMappingPlan.compile(firstLine);
+            } catch (final IllegalArgumentException e) {
+                LOGGER.error("Header of message with key {} is invalid. Reason: {}", vanillaMessageKey, e.getMessage());
+                return;
+            }
+            // Split the rows into chunks which are validated and transformed in parallel but published in their original order
+            final Deque<CompletableFuture<ParsedChunk>> pendingChunks = new ArrayDeque<>();
+            List<String> lines = new ArrayList<>(CHUNK_SIZE);
+            long firstLineNumber = 2;
+            String line;
+            while ((line = bufferedReader.readLine()) != null && !chunkPublisher.hasFailed()) {
+                lines.add(line);
+                if (lines.size() == CHUNK_SIZE) {
+                    pendingChunks.add(parseChunkAsync(mappingPlan, lines, firstLineNumber));
+                    firstLineNumber += lines.size();
+                    lines = new ArrayList<>(CHUNK_SIZE);
+                    // Publishing the oldest chunk blocks reading once enough chunks are being parsed
+                    if (pendingChunks.size() >= MAX_PENDING_CHUNKS) chunkPublisher.publish(pendingChunks.poll().join());
+                }
+            }
+            if (!lines.isEmpty()) pendingChunks.add(parseChunkAsync(mappingPlan, lines, firstLineNumber));
+            while (!pendingChunks.isEmpty() && !chunkPublisher.hasFailed()) {
+                chunkPublisher.publish(pendingChunks.poll().join());
+            }
+        } finally {
+            chunkPublisher.awaitCompletion();
+        }
+    }
+
+    private CompletableFuture<ParsedChunk> parseChunkAsync(final CsdbMappingPlan mappingPlan, final List<String> lines, final long firstLineNumber) {
+        return CompletableFuture.supplyAsync(() -> {
+            final CsvTokenizer tokenizer = TOKENIZER.get();
+            final CSDB[] csdbs = new CSDB[lines.size()];
+            for (int i = 0; i < csdbs.length; i++) {
+                tokenizer.reset(lines.get(i));
+                if (tokenizer.fieldCount() == mappingPlan.columnCount()) csdbs[i] = tryCreateTransformedCsdb(tokenizer, mappingPlan);
+            }
+            return new ParsedChunk(firstLineNumber, lines, csdbs);
+        }, parserPool);
+    }
+
+    private static CSDB tryCreateTransformedCsdb(final CsvTokenizer tokenizer, final CsdbMappingPlan mappingPlan) {
+        try {
+            return mappingPlan.map(tokenizer);
+        } catch (final RuntimeException e) {
+            LOGGER.debug("Row could not be transformed. Reason: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Holds the rows of one chunk together with their transformed counterparts. A row which could not be validated or transformed has no
+     * counterpart.
+     */
+    private static final class ParsedChunk {
+        private final long firstLineNumber;
+        private final List<String> lines;
+        private final CSDB[] csdbs;
+
+        private ParsedChunk(final long firstLineNumber, final List<String> lines, final CSDB[] csdbs) {
+            this.firstLineNumber = firstLineNumber;
+            this.lines = lines;
+            this.csdbs = csdbs;
+        }
+    }
+
+    /**
+     * Publishes parsed chunks of one vanilla file asynchronously within a {@link PublishWindow}, so that publishing blocks while too many records
+     * have been sent but not yet persisted.
+     */
+    private final class ChunkPublisher {
+        private final String vanillaMessageKey;
+        private final PublishWindow publishWindow = new PublishWindow(MAX_IN_FLIGHT_RECORDS);
+        private long publishedRecords;
+        private long rejectedRecords;
+
+        private ChunkPublisher(final String vanillaMessageKey) {
+            this.vanillaMessageKey = vanillaMessageKey;
+        }
+
+        private boolean hasFailed() {
+            return publishWindow.hasFailed();
+        }
+
+        private void publish(final ParsedChunk chunk) {
+            for (int i = 0; i < chunk.csdbs.length && !hasFailed(); i++) {
+                final CSDB csdb = chunk.csdbs[i];
+                if (csdb != null) {
+                    publishWindow.publish(transformedTopic, csdb.getCsdbKey().toString(), csdb.getCsdbKey().getIdentifier(), csdb,
+                            Collections.emptyMap(), position -> LOGGER.debug("Published record at position {}", position));
+                    publishedRecords++;
+                } else {
+                    publishWindow.publish(rejectedTopic, vanillaMessageKey, null, chunk.lines.get(i).getBytes(UTF_8),
+                            Collections.singletonMap(LINE_NUMBER_PROPERTY, String.valueOf(chunk.firstLineNumber + i)),
+                            position -> LOGGER.debug("Rejected row at position {}", position));
+                    rejectedRecords++;
+                }
+            }
+        }
+
+        private void awaitCompletion() throws IOException {
+            publishWindow.awaitCompletion(transformedTopic, rejectedTopic);
+            LOGGER.info("Published {} records to the topic {} and rejected {} rows to the topic {}", publishedRecords, TRANSFORMED_TOPIC_NAME,
+                    rejectedRecords, REJECTED_TOPIC_NAME);
+        }
+    }
+
+    @Override
+    public void allTransformedCsdbs(final OutputStream outputStream) {
+        writeJsonArray(transformedCsdbStore.values(), outputStream);
+    }
+
+    @Override
+    public void queryTransformedCsdbs(final CsdbQuery query, final OutputStream outputStream) {
+        writeJsonArray(transformedCsdbStore.query(query), outputStream);
+    }
+
+    private static void writeJsonArray(final Iterable<CSDB> csdbs, final OutputStream outputStream) {
+        // Write one record after the other, so that the response does not need to be held in memory as a whole
+        try {
+            outputStream.write('[');
+            boolean isFirstRecord = true;
+            for (final CSDB csdb : csdbs) {
+                if (!isFirstRecord) outputStream.write(',');
+                outputStream.write(JSONB.toJson(csdb).getBytes(UTF_8));
+                isFirstRecord = false;
+            }
+            outputStream.write(']');
+        } catch (final IOException e) {
+            LOGGER.error("Error during writing of transformed CSDBs occurred. Reason: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Page<CSDB> pageTransformedCsdbs(final String next, final int limit) {
+        final List<CSDB> records = new ArrayList<>(limit);
+        final Position[] lastPosition = {null};
+        final Position position = next != null ? positionOf(next) : null;
+        try {
+            transformedTopic.forEachAfter(position, record -> {
+                records.add(record.getValue());
+                lastPosition[0] = record.getPosition();
+                return records.size() < limit;
+            });
+        } catch (final IOException e) {
+            LOGGER.error("Error during reading from topic {} occurred. Reason: {}", TRANSFORMED_TOPIC_NAME, e.getMessage());
+            throw new RuntimeException("Page of topic " + TRANSFORMED_TOPIC_NAME + " could not be read!");
+        }
+        // Only a full page is continued, so that the end of the topic has been reached with the first page which is not full
+        return new Page<>(records, records.size() == limit ? Page.tokenOf(lastPosition[0].toByteArray()) : null);
+    }
+
+    private Position positionOf(final String next) {
+        try {
+            return transformedTopic.positionOf(Page.positionOf(next));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Token " + next + " is invalid!");
+        }
+    }
+
+    @Override
+    public CSDB findTransformedCsdb(final String messageKey) {
+        final CSDB csdb = transformedCsdbStore.get(messageKey);
+        if (csdb == null) throw new RuntimeException("Message with id " + messageKey + " not found!");
+        return csdb;
+    }
+}
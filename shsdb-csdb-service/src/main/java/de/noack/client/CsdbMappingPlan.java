@@ -0,0 +1,152 @@
+package de.noack.client;
+
+import de.noack.model.CSDB;
+import de.noack.model.CSDBKey;
+import de.noack.model.CSDBSchema;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static de.noack.client.CsdbClient.CSV_DELIMITER;
+import static de.noack.model.CSDBSchema.*;
+
+/**
+ * This class represents the mapping of one CSDB file header onto {@link CSDB} attributes. The header is compiled once per file into arrays of
+ * column indices and setter handlers which only contain the columns actually present in the file. Transforming a row then neither looks up a
+ * map nor checks for missing columns. A compiled plan is immutable and can be shared between threads.
+ *
+ * @author davidnoack
+ */
+public final class CsdbMappingPlan {
+    private static final int CODE_TABLE_CAPACITY = 1024;
+    private static final Map<CSDBSchema, ColumnMapper> MAPPERS = new EnumMap<>(CSDBSchema.class);
+
+    static {
+        MAPPERS.put(ACCR_INCOME_FACTOR, (csdb, tokenizer, column) -> csdb.setAccruedIncomeFactor(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(ACCR_INTEREST, (csdb, tokenizer, column) -> csdb.setAccruedInterest(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(AMOUNT_OUT, (csdb, tokenizer, column) -> csdb.setAmountOutstanding(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(AMOUNT_OUTST_EUR, (csdb, tokenizer, column) -> csdb.setAmountOutstandingEuro(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(ASSET_SECURIS_TYPE, code(CSDB::setAssetSecuritisationType));
+        MAPPERS.put(AVERAGE_PRICE, (csdb, tokenizer, column) -> csdb.setAveragePrice(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(CFI, code(CSDB::setCfiCode));
+        MAPPERS.put(COUPON_DT, (csdb, tokenizer, column) -> csdb.setCouponDate(tokenizer.getLocalDate(column)));
+        MAPPERS.put(COUPON_FREQUENCY2, code(CSDB::setCouponFrequency));
+        MAPPERS.put(COUPON_RATE, (csdb, tokenizer, column) -> csdb.setCouponRate(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(COUPON_TYPE2, code(CSDB::setCouponType));
+        MAPPERS.put(DEBT_TYPE2, code(CSDB::setDebtType));
+        MAPPERS.put(DERIVED_INCOME_EUR, (csdb, tokenizer, column) -> csdb.setDerivedIncomeEuro(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(DERIVED_INCOME_FREQ, code(CSDB::setDerivedIncomeFrequency));
+        MAPPERS.put(DIV_AMOUNT, (csdb, tokenizer, column) -> csdb.setDividendAmount(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(DIV_TYPE, code(CSDB::setDivType));
+        MAPPERS.put(DIV_CURRENCY, code(CSDB::setDividendCurrency));
+        MAPPERS.put(DIV_INCOME_EUR, (csdb, tokenizer, column) -> csdb.setDividendIncomeEuro(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(DIV_FREQ, code(CSDB::setDividendIncomeFrequency));
+        MAPPERS.put(DIV_DT, (csdb, tokenizer, column) -> csdb.setDividendSettlementDate(tokenizer.getLocalDate(column)));
+        MAPPERS.put(IN_EADB, code(CSDB::setInEADB));
+        MAPPERS.put(ESA_INS_2010, code(CSDB::setInstrumentClass));
+        MAPPERS.put(ESA_INS, code(CSDB::setInstrumentClassESA95));
+        MAPPERS.put(INS_SENIOR_TYPE, code(CSDB::setInstrumentSeniorityType));
+        MAPPERS.put(INT_ORG_CODE, code(CSDB::setInternalOrganisationCode));
+        MAPPERS.put(ISSUE_DT, (csdb, tokenizer, column) -> csdb.setIssueDate(tokenizer.getLocalDate(column)));
+        MAPPERS.put(ISSUE_PRICE, (csdb, tokenizer, column) -> csdb.setIssuePrice(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(ISSUER_COUNTRY, code(CSDB::setIssuerArea));
+        MAPPERS.put(ISS_ID, (csdb, tokenizer, column) -> csdb.setIssuerID(tokenizer.getString(column)));
+        MAPPERS.put(ISS_ID_TYPE, code(CSDB::setIssuerIDType));
+        MAPPERS.put(LEI, (csdb, tokenizer, column) -> csdb.setIssuerLEI(tokenizer.getString(column)));
+        MAPPERS.put(MFI, (csdb, tokenizer, column) -> csdb.setIssuerMFI(tokenizer.getString(column)));
+        MAPPERS.put(NACE, code(CSDB::setIssuerNACESector));
+        MAPPERS.put(ISSUER_NAME, (csdb, tokenizer, column) -> csdb.setIssuerName(tokenizer.getString(column)));
+        MAPPERS.put(ESA_ISSUER_2010, code(CSDB::setIssuerSector));
+        MAPPERS.put(ESA_ISSUER, code(CSDB::setIssuerESA95Sector));
+        MAPPERS.put(MARKET_CAPITAL, (csdb, tokenizer, column) -> csdb.setMarketCapitalisation(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(MARKET_CAP_EUR, (csdb, tokenizer, column) -> csdb.setMarketCapitalisationEuro(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(MATURITY_DT, (csdb, tokenizer, column) -> csdb.setMaturityDate(tokenizer.getLocalDate(column)));
+        MAPPERS.put(NOMINAL_CURRENCY, code(CSDB::setNominalCurrency));
+        MAPPERS.put(NOMINAL_VALUE, (csdb, tokenizer, column) -> csdb.setNominalValue(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(POOL_FACTOR, (csdb, tokenizer, column) -> csdb.setPoolFactor(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(PRICE, (csdb, tokenizer, column) -> csdb.setPriceValue(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(PRICE_DT, (csdb, tokenizer, column) -> csdb.setPriceValueDate(tokenizer.getLocalDate(column)));
+        MAPPERS.put(PRICE_VT, code(CSDB::setPriceValueType));
+        MAPPERS.put(PRIMARY_ASSET_CLASS, code(CSDB::setPrimaryAssetClassification));
+        MAPPERS.put(QUOTATION_BASIS, code(CSDB::setQuotationBasis));
+        MAPPERS.put(REDEMPTION_PRICE, (csdb, tokenizer, column) -> csdb.setRedemptionPrice(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(SEC_STATUS, code(CSDB::setSecurityStatus));
+        MAPPERS.put(SEC_STATUS_DT, (csdb, tokenizer, column) -> csdb.setSecurityStatusDate(tokenizer.getLocalDate(column)));
+        MAPPERS.put(SHORT_NAME, (csdb, tokenizer, column) -> csdb.setShortName(tokenizer.getString(column)));
+        MAPPERS.put(SPLIT_DT, (csdb, tokenizer, column) -> csdb.setSplitDate(tokenizer.getLocalDate(column)));
+        MAPPERS.put(SPLIT_FAC, (csdb, tokenizer, column) -> csdb.setSplitFactor(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(YIELD, (csdb, tokenizer, column) -> csdb.setYieldToMaturity(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(AVERAGE_PRICE_1, (csdb, tokenizer, column) -> csdb.setAveragePrice1(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(AVERAGE_PRICE_2, (csdb, tokenizer, column) -> csdb.setAveragePrice2(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(NUMBER_OUTST, (csdb, tokenizer, column) -> csdb.setNumberOutstanding(tokenizer.getBigDecimal(column)));
+    }
+
+    private final int columnCount;
+    private final int identifierColumn;
+    private final int periodColumn;
+    private final int versionColumn;
+    private final int[] columns;
+    private final ColumnMapper[] mappers;
+
+    private CsdbMappingPlan(final int columnCount, final int identifierColumn, final int periodColumn, final int versionColumn,
+                            final int[] columns, final ColumnMapper[] mappers) {
+        this.columnCount = columnCount;
+        this.identifierColumn = identifierColumn;
+        this.periodColumn = periodColumn;
+        this.versionColumn = versionColumn;
+        this.columns = columns;
+        this.mappers = mappers;
+    }
+
+    public static CsdbMappingPlan compile(final String header) {
+        final String[] csvAttributes = header.split(CSV_DELIMITER);
+        final Map<CSDBSchema, Integer> columnOrder = new EnumMap<>(CSDBSchema.class);
+        // Find out order of column headers
+        for (int i = 0; i < csvAttributes.length; i++) {
+            columnOrder.put(CSDBSchema.valueOf(csvAttributes[i]), i);
+        }
+        for (final CSDBSchema keyAttribute : new CSDBSchema[]{IDENTIFIER, PERIOD, VERSION}) {
+            if (!columnOrder.containsKey(keyAttribute)) throw new IllegalArgumentException("Header does not contain key attribute " + keyAttribute);
+        }
+        final List<Integer> columns = new ArrayList<>();
+        final List<ColumnMapper> mappers = new ArrayList<>();
+        for (final Map.Entry<CSDBSchema, Integer> entry : columnOrder.entrySet()) {
+            final ColumnMapper mapper = MAPPERS.get(entry.getKey());
+            if (mapper != null) {
+                columns.add(entry.getValue());
+                mappers.add(mapper);
+            }
+        }
+        return new CsdbMappingPlan(csvAttributes.length, columnOrder.get(IDENTIFIER), columnOrder.get(PERIOD), columnOrder.get(VERSION),
+                columns.stream().mapToInt(Integer::intValue).toArray(), mappers.toArray(new ColumnMapper[0]));
+    }
+
+    public int columnCount() {
+        return columnCount;
+    }
+
+    public CSDB map(final CsvTokenizer tokenizer) {
+        final CSDB csdb = new CSDB(new CSDBKey(tokenizer.getString(identifierColumn), tokenizer.parseInt(periodColumn),
+                tokenizer.parseInt(versionColumn)));
+        for (int i = 0; i < columns.length; i++) {
+            mappers[i].map(csdb, tokenizer, columns[i]);
+        }
+        return csdb;
+    }
+
+    /**
+     * Returns a mapper for a column with few distinct values, whose values are taken from an intern table of that column.
+     */
+    private static ColumnMapper code(final BiConsumer<CSDB, String> setter) {
+        final StringInternTable internTable = new StringInternTable(CODE_TABLE_CAPACITY);
+        return (csdb, tokenizer, column) -> setter.accept(csdb, tokenizer.getString(column, internTable));
+    }
+
+    @FunctionalInterface
+    private interface ColumnMapper {
+        void map(final CSDB csdb, final CsvTokenizer tokenizer, final int column);
+    }
+}
@@ -0,0 +1,153 @@
+package de.noack.client;
+
+import de.noack.model.LocalDateCodec;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.ResolverStyle;
+
+/**
+ * This class represents a reusable cursor over one delimited CSV line. Instead of splitting a line into strings it remembers the trimmed start and
+ * end offset of every field within an internal character buffer. Values are parsed straight from these offsets, so that only those fields are
+ * materialized which actually contain data. One instance must not be shared between threads.
+ *
+ * @author davidnoack
+ */
+public final class CsvTokenizer {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_LONG_DIGITS = 18;
+    private final char delimiter;
+    private char[] buffer = new char[256];
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] ends = new int[INITIAL_CAPACITY];
+    private int fieldCount;
+
+    public CsvTokenizer(final char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    public CsvTokenizer reset(final CharSequence line) {
+        final int length = line.length();
+        if (buffer.length < length) buffer = new char[Math.max(length, buffer.length * 2)];
+        if (line instanceof String) ((String) line).getChars(0, length, buffer, 0);
+        else for (int i = 0; i < length; i++) buffer[i] = line.charAt(i);
+        fieldCount = 0;
+        int fieldStart = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || buffer[i] == delimiter) {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        return this;
+    }
+
+    private void addField(int start, int end) {
+        // Trim the same characters as String#trim does
+        while (start < end && buffer[start] <= ' ') start++;
+        while (end > start && buffer[end - 1] <= ' ') end--;
+        if (fieldCount == starts.length) {
+            final int[] newStarts = new int[starts.length * 2];
+            final int[] newEnds = new int[ends.length * 2];
+            System.arraycopy(starts, 0, newStarts, 0, fieldCount);
+            System.arraycopy(ends, 0, newEnds, 0, fieldCount);
+            starts = newStarts;
+            ends = newEnds;
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * A field is regarded as empty if it contains whitespaces only or if it is not part of the current line at all.
+     */
+    public boolean isEmpty(final int field) {
+        return field < 0 || field >= fieldCount || starts[field] == ends[field];
+    }
+
+    public String getString(final int field) {
+        return isEmpty(field) ? null : new String(buffer, starts[field], ends[field] - starts[field]);
+    }
+
+    /**
+     * Returns the value of the given field from the given table, so that repeated values of a code column share one string.
+     */
+    public String getString(final int field, final StringInternTable internTable) {
+        return isEmpty(field) ? null : internTable.intern(buffer, starts[field], ends[field] - starts[field]);
+    }
+
+    public boolean equalsIgnoreCase(final int field, final String value) {
+        if (isEmpty(field)) return value.isEmpty();
+        final int start = starts[field];
+        if (ends[field] - start != value.length()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.toUpperCase(buffer[start + i]) != Character.toUpperCase(value.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    public Integer getInteger(final int field) {
+        return isEmpty(field) ? null : parseInt(field);
+    }
+
+    public int parseInt(final int field) {
+        if (isEmpty(field)) throw new NumberFormatException("Field " + field + " is empty");
+        int position = starts[field];
+        final int end = ends[field];
+        final boolean negative = buffer[position] == '-';
+        if (negative || buffer[position] == '+') position++;
+        if (position == end) throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+        long result = 0;
+        for (; position < end; position++) {
+            final int digit = buffer[position] - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            result = result * 10 + digit;
+            if (result > Integer.MAX_VALUE + 1L) throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+        }
+        if (negative) result = -result;
+        if (result > Integer.MAX_VALUE) throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+        return (int) result;
+    }
+
+    /**
+     * Decimals of up to 18 digits are parsed into an unscaled long and a scale, which yields a compact {@link BigDecimal} straight away. Longer
+     * values and values with an exponent are parsed by {@link BigDecimal} itself.
+     */
+    public BigDecimal getBigDecimal(final int field) {
+        if (isEmpty(field)) return null;
+        final int start = starts[field];
+        final int end = ends[field];
+        int position = start;
+        final boolean negative = buffer[position] == '-';
+        if (negative || buffer[position] == '+') position++;
+        long unscaledValue = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean isFraction = false;
+        for (; position < end; position++) {
+            if (buffer[position] == '.' && !isFraction) {
+                isFraction = true;
+                continue;
+            }
+            final int digit = buffer[position] - '0';
+            if (digit < 0 || digit > 9 || ++digits > MAX_LONG_DIGITS) return new BigDecimal(buffer, start, end - start);
+            unscaledValue = unscaledValue * 10 + digit;
+            if (isFraction) scale++;
+        }
+        // A field without any digit is rejected by BigDecimal with its usual exception
+        if (digits == 0) return new BigDecimal(buffer, start, end - start);
+        return BigDecimal.valueOf(negative ? -unscaledValue : unscaledValue, scale);
+    }
+
+    /**
+     * Dates are expected in the layout yyyy-MM-dd. An invalid day of month is changed to the last valid day of that month.
+     */
+    public LocalDate getLocalDate(final int field) {
+        return isEmpty(field) ? null : LocalDateCodec.parse(buffer, starts[field], ends[field] - starts[field], ResolverStyle.SMART);
+    }
+}
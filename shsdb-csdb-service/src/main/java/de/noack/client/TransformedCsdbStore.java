@@ -0,0 +1,254 @@
+package de.noack.client;
+
+import de.noack.commitlog.BinarySchema;
+import de.noack.commitlog.LogReader;
+import de.noack.commitlog.LogRecord;
+import de.noack.commitlog.Topic;
+import de.noack.model.CSDB;
+import de.noack.model.CsdbQuery;
+import org.apache.pulsar.client.api.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static de.noack.client.CsdbClient.TRANSFORMED_TOPIC_NAME;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * This class represents a materialized view of the topic "csdb-transformed". It continuously tails the topic with one {@link LogReader} and keeps
+ * the latest {@link CSDB} per message key, so that lookups do not need to scan the topic. The records themselves are held off-heap in a
+ * {@link CsdbColumnStore}, only the row of each message key is kept on the heap, together with a {@link CsdbIndex} of the rows to answer queries.
+ * The content of the store is checkpointed together with the checkpoint of the reader after the last applied record, which lets a restarted
+ * application continue tailing from that position instead of replaying the whole topic. Checkpoints are written by a thread of their own, so that
+ * tailing goes on while the whole store is encoded.
+ *
+ * @author davidnoack
+ */
+public class TransformedCsdbStore implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransformedCsdbStore.class);
+    private static final String CHECKPOINT_FILE_NAME = "csdb-transformed.checkpoint";
+    private static final int CHECKPOINT_FORMAT_VERSION = 4;
+    private static final long READ_TIMEOUT_MILLIS = 1_000;
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 60_000;
+    private final Schema<CSDB> checkpointSchema = BinarySchema.of(CSDB.class);
+    private final Topic<CSDB> topic;
+    private final Path checkpointFile;
+    private volatile Content content = new Content();
+    private final AtomicBoolean hasUncheckpointedChanges = new AtomicBoolean();
+    private final ExecutorService checkpointExecutor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "csdb-transformed-checkpoint"));
+    private byte[] readerCheckpoint;
+    private volatile boolean isRunning;
+    private Thread tailingThread;
+
+    public TransformedCsdbStore(final Topic<CSDB> topic, final Path checkpointDirectory) {
+        this.topic = topic;
+        this.checkpointFile = checkpointDirectory.resolve(CHECKPOINT_FILE_NAME);
+    }
+
+    public void start() throws IOException {
+        restoreCheckpoint();
+        LogReader<CSDB> reader;
+        try {
+            reader = topic.follow(readerCheckpoint);
+        } catch (final IllegalArgumentException e) {
+            // A checkpoint of another commit log or of a recreated topic does not fit the topic, which is replayed instead
+            LOGGER.warn("Ignoring checkpoint {} which does not fit the topic {}. Reason: {}", checkpointFile, TRANSFORMED_TOPIC_NAME, e.getMessage());
+            content = new Content();
+            readerCheckpoint = null;
+            reader = topic.follow(null);
+        }
+        final LogReader<CSDB> tailedReader = reader;
+        isRunning = true;
+        tailingThread = new Thread(() -> tail(tailedReader), "csdb-transformed-store");
+        tailingThread.start();
+    }
+
+    public CSDB get(final String messageKey) {
+        final Content currentContent = content;
+        final Integer row = currentContent.latestRows.get(messageKey);
+        return row == null ? null : currentContent.columnStore.read(row);
+    }
+
+    /**
+     * Returns the latest record of every message key. Records are rebuilt one by one while iterating.
+     */
+    public Iterable<CSDB> values() {
+        final Content currentContent = content;
+        return () -> {
+            final Iterator<Integer> rows = currentContent.latestRows.values().iterator();
+            return new Iterator<CSDB>() {
+                @Override
+                public boolean hasNext() {
+                    return rows.hasNext();
+                }
+
+                @Override
+                public CSDB next() {
+                    return currentContent.columnStore.read(rows.next());
+                }
+            };
+        };
+    }
+
+    /**
+     * Returns the latest record of every message key matching the query. Only the rows selected by the index are rebuilt.
+     */
+    public Iterable<CSDB> query(final CsdbQuery query) {
+        final Content currentContent = content;
+        final List<Integer> rows = currentContent.index.find(query);
+        return () -> rows.stream().map(currentContent.columnStore::read).iterator();
+    }
+
+    private void tail(final LogReader<CSDB> reader) {
+        long lastCheckpoint = System.currentTimeMillis();
+        Future<?> pendingCheckpoint = CompletableFuture.completedFuture(null);
+        try (final LogReader<CSDB> closeableReader = reader) {
+            while (isRunning) {
+                try {
+                    final LogRecord<CSDB> record = closeableReader.next(READ_TIMEOUT_MILLIS);
+                    if (record != null) apply(record, closeableReader.checkpoint());
+                } catch (final IOException e) {
+                    LOGGER.error("Error during tailing of topic {} occurred. Reason: {}", TRANSFORMED_TOPIC_NAME, e.getMessage());
+                }
+                // A checkpoint which takes longer than the interval is not queued up behind another one
+                if (System.currentTimeMillis() - lastCheckpoint > CHECKPOINT_INTERVAL_MILLIS && pendingCheckpoint.isDone()) {
+                    pendingCheckpoint = scheduleCheckpoint();
+                    lastCheckpoint = System.currentTimeMillis();
+                }
+            }
+            scheduleCheckpoint();
+        } catch (final IOException e) {
+            LOGGER.error("Error during close of reader for topic {} occurred. Reason: {}", TRANSFORMED_TOPIC_NAME, e.getMessage());
+        }
+    }
+
+    private void apply(final LogRecord<CSDB> record, final byte[] checkpoint) {
+        try {
+            if (record.getKey() != null) content.put(record.getKey(), record.getValue());
+        } catch (final RuntimeException e) {
+            // A record which cannot be decoded would stop the store for good, so that it is skipped
+            LOGGER.error("Skipping record {} of topic {}. Reason: {}", record.getPosition(), TRANSFORMED_TOPIC_NAME, e.getMessage(), e);
+        }
+        readerCheckpoint = checkpoint;
+        hasUncheckpointedChanges.set(true);
+    }
+
+    private void restoreCheckpoint() {
+        if (!Files.exists(checkpointFile)) return;
+        try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpointFile)))) {
+            if (input.readInt() != CHECKPOINT_FORMAT_VERSION) {
+                LOGGER.warn("Ignoring checkpoint {} with unknown format", checkpointFile);
+                return;
+            }
+            final byte[] checkpoint = readBytes(input);
+            final int entryCount = input.readInt();
+            // The checkpoint is restored into fresh content, so that a failed restore does not leave any of its entries behind
+            final Content restoredContent = new Content();
+            for (int i = 0; i < entryCount; i++) {
+                restoredContent.put(input.readUTF(), checkpointSchema.decode(readBytes(input)));
+            }
+            content = restoredContent;
+            readerCheckpoint = checkpoint;
+            LOGGER.info("Restored {} records from checkpoint {}", entryCount, checkpointFile);
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.error("Error while restoring checkpoint {} occurred. Replaying topic instead. Reason: {}", checkpointFile, e.getMessage());
+            content = new Content();
+            readerCheckpoint = null;
+        }
+    }
+
+    /**
+     * Hands the content over to the checkpoint thread together with the reader checkpoint of the last applied record. The content is encoded while
+     * the tailing thread goes on, so that the checkpoint may contain records following its reader checkpoint. These are applied once more after a
+     * restart in the order of the topic, which leaves the latest record per message key just like before.
+     */
+    private Future<?> scheduleCheckpoint() {
+        final byte[] checkpoint = readerCheckpoint;
+        if (checkpoint == null || !hasUncheckpointedChanges.getAndSet(false)) return CompletableFuture.completedFuture(null);
+        final Content checkpointedContent = content;
+        return checkpointExecutor.submit(() -> writeCheckpoint(checkpoint, checkpointedContent));
+    }
+
+    private void writeCheckpoint(final byte[] checkpoint, final Content checkpointedContent) {
+        try {
+            Files.createDirectories(checkpointFile.getParent());
+            final Path temporaryFile = checkpointFile.resolveSibling(CHECKPOINT_FILE_NAME + ".tmp");
+            // The rows of the message keys are copied first, as the tailing thread keeps adding message keys while the checkpoint is written
+            final List<Map.Entry<String, Integer>> latestRows = new ArrayList<>(checkpointedContent.latestRows.entrySet());
+            try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeInt(CHECKPOINT_FORMAT_VERSION);
+                writeBytes(output, checkpoint);
+                output.writeInt(latestRows.size());
+                for (final Map.Entry<String, Integer> entry : latestRows) {
+                    output.writeUTF(entry.getKey());
+                    writeBytes(output, checkpointSchema.encode(checkpointedContent.columnStore.read(entry.getValue())));
+                }
+            }
+            Files.move(temporaryFile, checkpointFile, REPLACE_EXISTING, ATOMIC_MOVE);
+            LOGGER.info("Checkpointed {} records of the topic {}", latestRows.size(), TRANSFORMED_TOPIC_NAME);
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.error("Error while writing checkpoint {} occurred. Reason: {}", checkpointFile, e.getMessage());
+            // The changes are checkpointed with the next interval instead
+            hasUncheckpointedChanges.set(true);
+        }
+    }
+
+    private static byte[] readBytes(final DataInputStream input) throws IOException {
+        final byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeBytes(final DataOutputStream output, final byte[] bytes) throws IOException {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    @Override
+    public void close() {
+        isRunning = false;
+        try {
+            if (tailingThread != null) tailingThread.join();
+            // The tailing thread hands over a last checkpoint before it ends
+            checkpointExecutor.shutdown();
+            checkpointExecutor.awaitTermination(CHECKPOINT_INTERVAL_MILLIS, MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The records of the store together with their index. Content is only ever added to by the tailing thread and replaced as a whole.
+     */
+    private static final class Content {
+        private final CsdbColumnStore columnStore = new CsdbColumnStore();
+        private final Map<String, Integer> latestRows = new ConcurrentHashMap<>();
+        private final CsdbIndex<Integer> index = new CsdbIndex<>();
+
+        private void put(final String messageKey, final CSDB csdb) {
+            // A record of a known message key replaces the previous one within its row
+            final Integer latestRow = latestRows.get(messageKey);
+            final int row;
+            if (latestRow != null) {
+                row = latestRow;
+                columnStore.set(row, csdb);
+            } else {
+                row = columnStore.append(csdb);
+                latestRows.put(messageKey, row);
+            }
+            index.put(messageKey, csdb.getCsdbKey(), row);
+        }
+    }
+}
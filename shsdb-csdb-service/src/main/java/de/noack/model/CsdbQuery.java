@@ -0,0 +1,28 @@
+package de.noack.model;
+
+import lombok.Value;
+
+/**
+ * This class represents the criteria of a query over transformed CSDB data. Every criterion is optional, a record matches if it fulfills all given
+ * criteria. The period range includes both of its bounds, the ISIN prefix applies to the identifier of the {@link CSDBKey}.
+ *
+ * @author davidnoack
+ */
+@Value
+public class CsdbQuery {
+    Integer periodFrom;
+    Integer periodTo;
+    String isinPrefix;
+    Integer version;
+
+    public boolean isEmpty() {
+        return periodFrom == null && periodTo == null && isinPrefix == null && version == null;
+    }
+
+    public boolean matches(final CSDBKey csdbKey) {
+        return (periodFrom == null || csdbKey.getPeriod() >= periodFrom)
+                && (periodTo == null || csdbKey.getPeriod() <= periodTo)
+                && (isinPrefix == null || csdbKey.getIdentifier().startsWith(isinPrefix))
+                && (version == null || version.equals(csdbKey.getVersion()));
+    }
+}
@@ -1,5 +1,7 @@
 package de.noack.resources;
 
+import de.noack.model.CsdbQuery;
+import de.noack.model.Page;
 import de.noack.service.CsdbService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,17 +10,21 @@ import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
+import java.io.InputStream;
 import java.net.URI;
 
 import static javax.ws.rs.client.Entity.entity;
 import static javax.ws.rs.core.MediaType.*;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static javax.ws.rs.core.Response.*;
 
 /**
  * This resource serves all Centralised Securities Data Base data of SHSDB retrieved within the last five years. Posted CSDBs will be persisted to a
  * commit log selected within the application properties. One CSDB can be retrieved in a transformed way or as raw data. One dataset can only be
- * accessed when it has been transformed to JSON beforehand.
+ * accessed when it has been transformed to JSON beforehand. Transformed CSDBs can be filtered by a period range, an ISIN prefix and the version,
+ * or be read page by page with a limit and the token of the next page. Posted CSDBs are streamed to the commit log while they are received, so that
+ * their size is not bounded by the heap.
  *
  * @author davidnoack
  */
@@ -33,7 +39,7 @@ public class CsdbResource {
 
     @POST
     @Consumes({APPLICATION_OCTET_STREAM, TEXT_CSV})
-    public Response createVanillaCsdb(byte[] content) {
+    public Response createVanillaCsdb(final InputStream content) {
         try {
             final String messageKey = csdbService.produce(content);
             return created(new URI(SERVICE_URI + messageKey)).build();
@@ -76,9 +82,24 @@ public class CsdbResource {
     @GET
     @Path("transformed")
     @Produces({APPLICATION_JSON, TEXT_PLAIN})
-    public Response getTransformedCsdbs() {
+    public Response getTransformedCsdbs(@QueryParam("periodFrom") final Integer periodFrom, @QueryParam("periodTo") final Integer periodTo,
+                                        @QueryParam("isinPrefix") final String isinPrefix, @QueryParam("version") final Integer version,
+                                        @QueryParam("limit") final Integer limit, @QueryParam("next") final String next) {
         try {
-            return ok(csdbService.allTransformedCsdbs()).build();
+            final CsdbQuery query = new CsdbQuery(periodFrom, periodTo, isinPrefix, version);
+            if (limit != null || next != null) {
+                if (!query.isEmpty()) throw new IllegalArgumentException("Pages cannot be combined with query parameters!");
+                return ok(csdbService.pageTransformedCsdbs(next, Page.limitOf(limit)), APPLICATION_JSON).build();
+            }
+            final StreamingOutput stream = query.isEmpty()
+                    ? csdbService::allTransformedCsdbs
+                    : outputStream -> csdbService.queryTransformedCsdbs(query, outputStream);
+            return ok(stream, APPLICATION_JSON).build();
+        } catch (final IllegalArgumentException e) {
+            LOGGER.error(e.getMessage());
+            return status(BAD_REQUEST)
+                    .entity(entity(e.getMessage(), TEXT_PLAIN))
+                    .build();
         } catch (RuntimeException e) {
             LOGGER.error(e.getMessage());
             return status(NOT_FOUND)
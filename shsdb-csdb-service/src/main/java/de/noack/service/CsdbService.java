@@ -1,38 +1,27 @@
 package de.noack.service;
 
 import de.noack.client.CsdbClient;
-import de.noack.client.pulsar.CsdbPulsarClient;
 import de.noack.model.CSDB;
-import org.eclipse.microprofile.config.inject.ConfigProperty;
+import de.noack.model.CsdbQuery;
+import de.noack.model.Page;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Set;
 
 @RequestScoped
 public class CsdbService {
-    private static final String IMPLEMENTATION_MISSING = "Not yet implemented!";
     private final CsdbClient csdbClient;
 
     @Inject
-    public CsdbService(@ConfigProperty(name = "commitlog") final CommitLog commitLog, CsdbPulsarClient csdbPulsarClient) {
+    public CsdbService(final CsdbClient csdbClient) {
         super();
-        switch (commitLog) {
-            case PULSAR:
-                csdbClient = csdbPulsarClient;
-                break;
-            case KAFKA:
-                // TODO: Implement
-                throw new RuntimeException(IMPLEMENTATION_MISSING);
-            default:
-                throw new RuntimeException(IMPLEMENTATION_MISSING);
-        }
-    }
-
-    public String produce(byte[] csdb) throws IOException {
+        this.csdbClient = csdbClient;
+    }
+
+    public String produce(final InputStream csdb) throws IOException {
         return csdbClient.produceVanillaCsdb(csdb);
     }
 
@@ -44,8 +33,16 @@ public class CsdbService {
         csdbClient.allVanillaCsdbs(outputStream);
     }
 
-    public Set<CSDB> allTransformedCsdbs() {
-        return csdbClient.allTransformedCsdbs();
+    public void allTransformedCsdbs(final OutputStream outputStream) {
+        csdbClient.allTransformedCsdbs(outputStream);
+    }
+
+    public void queryTransformedCsdbs(final CsdbQuery query, final OutputStream outputStream) {
+        csdbClient.queryTransformedCsdbs(query, outputStream);
+    }
+
+    public Page<CSDB> pageTransformedCsdbs(final String next, final int limit) {
+        return csdbClient.pageTransformedCsdbs(next, limit);
     }
 
     public CSDB findTransformedCsdb(final String messageKey) {
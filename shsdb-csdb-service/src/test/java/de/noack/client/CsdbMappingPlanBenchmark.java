@@ -0,0 +1,84 @@
+package de.noack.client;
+
+import de.noack.model.CSDB;
+import de.noack.model.CSDBSchema;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * This class compares the time per row of a {@link CsdbMappingPlan} with the map based parser it has replaced. It is not part of the regular
+ * test run and has to be started explicitly: mvn test -pl shsdb-csdb-service -Dtest=CsdbMappingPlanBenchmark
+ * <p>
+ * The harness takes care of what JMH would otherwise handle: both parsers are warmed up before measuring, measured rounds alternate between them
+ * and the fastest round of each is reported, and every created record feeds a checksum which is printed, so that the JIT cannot drop the parsing.
+ * It does not fork a JVM per parser, so that a difference of a few percent is within the noise of a run, whereas the gap between both parsers is
+ * not.
+ *
+ * @author davidnoack
+ */
+public class CsdbMappingPlanBenchmark {
+    private static final int ROWS = 50_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    @Test
+    public void compareMappingPlanWithMapParser() {
+        final List<CSDBSchema> attributes = Arrays.asList(CSDBSchema.values());
+        final String header = attributes.stream().map(CSDBSchema::name).collect(Collectors.joining(";"));
+        final Map<CSDBSchema, Integer> columnOrder = new EnumMap<>(CSDBSchema.class);
+        for (int i = 0; i < attributes.size(); i++) {
+            columnOrder.put(attributes.get(i), i);
+        }
+        final Random random = new Random(1);
+        final List<String> lines = new ArrayList<>(ROWS);
+        for (int row = 0; row < ROWS; row++) {
+            lines.add(attributes.stream().map(attribute -> CsdbMappingPlanTest.valueOf(attribute, random)).collect(Collectors.joining(";")));
+        }
+        final CsdbMappingPlan mappingPlan = CsdbMappingPlan.compile(header);
+        final CsvTokenizer tokenizer = new CsvTokenizer(';');
+        long checksum = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            checksum += mapParserRound(lines, columnOrder) + mappingPlanRound(lines, mappingPlan, tokenizer);
+        }
+        long mapParserNanos = Long.MAX_VALUE;
+        long mappingPlanNanos = Long.MAX_VALUE;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            // Rounds alternate between both parsers, so that neither of them profits from a later state of the JIT alone
+            long start = System.nanoTime();
+            checksum += mapParserRound(lines, columnOrder);
+            mapParserNanos = Math.min(mapParserNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            checksum += mappingPlanRound(lines, mappingPlan, tokenizer);
+            mappingPlanNanos = Math.min(mappingPlanNanos, System.nanoTime() - start);
+        }
+        System.out.printf("Map parser:    %8.1f ns per row%n", (double) mapParserNanos / ROWS);
+        System.out.printf("Mapping plan:  %8.1f ns per row%n", (double) mappingPlanNanos / ROWS);
+        System.out.printf("Speedup:       %8.2f (checksum %d)%n", (double) mapParserNanos / mappingPlanNanos, checksum);
+    }
+
+    private static long mapParserRound(final List<String> lines, final Map<CSDBSchema, Integer> columnOrder) {
+        long checksum = 0;
+        for (final String line : lines) {
+            checksum += checksumOf(BaselineCsdbParser.createTransformedCsdb(line, columnOrder));
+        }
+        return checksum;
+    }
+
+    private static long mappingPlanRound(final List<String> lines, final CsdbMappingPlan mappingPlan, final CsvTokenizer tokenizer) {
+        long checksum = 0;
+        for (final String line : lines) {
+            checksum += checksumOf(mappingPlan.map(tokenizer.reset(line)));
+        }
+        return checksum;
+    }
+
+    /**
+     * Uses some attributes of the record, so that its creation cannot be eliminated by the JIT.
+     */
+    private static long checksumOf(final CSDB csdb) {
+        return csdb.getCsdbKey().getVersion() + (csdb.getShortName() != null ? csdb.getShortName().length() : 0)
+                + (csdb.getIssueDate() != null ? csdb.getIssueDate().getDayOfMonth() : 0);
+    }
+}
@@ -0,0 +1,93 @@
+package de.noack.client;
+
+import de.noack.model.CSDBSchema;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static de.noack.model.CSDBSchema.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author davidnoack
+ */
+public class CsdbMappingPlanTest {
+    private static final int ROWS = 2000;
+    private static final Set<CSDBSchema> DATES = EnumSet.of(COUPON_DT, DIV_DT, ISSUE_DT, MATURITY_DT, PRICE_DT, SEC_STATUS_DT, SPLIT_DT);
+    private static final Set<CSDBSchema> DECIMALS = EnumSet.of(ACCR_INCOME_FACTOR, ACCR_INTEREST, AMOUNT_OUT, AMOUNT_OUTST_EUR, AVERAGE_PRICE,
+            COUPON_RATE, DERIVED_INCOME_EUR, DIV_AMOUNT, DIV_INCOME_EUR, ISSUE_PRICE, MARKET_CAPITAL, MARKET_CAP_EUR, NOMINAL_VALUE, POOL_FACTOR,
+            PRICE, REDEMPTION_PRICE, SPLIT_FAC, YIELD, AVERAGE_PRICE_1, AVERAGE_PRICE_2, NUMBER_OUTST);
+    private static final Set<CSDBSchema> TEXTS = EnumSet.of(ISS_ID, LEI, MFI, ISSUER_NAME, SHORT_NAME);
+    private static final String[] CODES = {"A", "B1", "EUR", "S.122", "F.3", "  USD "};
+    private static final String[] DECIMAL_VALUES = {"0", "-0.00", "1.5", "-1234.5678", ".25", "100.", "123456789012345678", "1234567890123456789.5",
+            "1E+3", "-2.5e-4", " 42 "};
+
+    @Test
+    public void mapsRowsInSchemaOrderLikeTheBaselineParser() {
+        assertMappedLikeTheBaselineParser(Arrays.asList(CSDBSchema.values()), new Random(1));
+    }
+
+    @Test
+    public void mapsRowsInShuffledOrderLikeTheBaselineParser() {
+        final Random random = new Random(2);
+        final List<CSDBSchema> attributes = new ArrayList<>(Arrays.asList(CSDBSchema.values()));
+        Collections.shuffle(attributes, random);
+        assertMappedLikeTheBaselineParser(attributes, random);
+    }
+
+    @Test
+    public void mapsRowsOfAPartialHeaderLikeTheBaselineParser() {
+        final Random random = new Random(3);
+        final List<CSDBSchema> attributes = Arrays.stream(CSDBSchema.values())
+                .filter(attribute -> attribute == IDENTIFIER || attribute == PERIOD || attribute == VERSION || random.nextBoolean())
+                .collect(Collectors.toList());
+        Collections.shuffle(attributes, random);
+        assertMappedLikeTheBaselineParser(attributes, random);
+    }
+
+    @Test
+    public void rejectsAHeaderWithoutKeyAttributes() {
+        assertThrows(IllegalArgumentException.class, () -> CsdbMappingPlan.compile("IDENTIFIER;PERIOD;SHORT_NAME"));
+    }
+
+    @Test
+    public void rejectsAHeaderWithUnknownAttributes() {
+        assertThrows(IllegalArgumentException.class, () -> CsdbMappingPlan.compile("IDENTIFIER;PERIOD;VERSION;UNKNOWN"));
+    }
+
+    private static void assertMappedLikeTheBaselineParser(final List<CSDBSchema> attributes, final Random random) {
+        final String header = attributes.stream().map(CSDBSchema::name).collect(Collectors.joining(";"));
+        final Map<CSDBSchema, Integer> columnOrder = new EnumMap<>(CSDBSchema.class);
+        for (int i = 0; i < attributes.size(); i++) {
+            columnOrder.put(attributes.get(i), i);
+        }
+        final CsdbMappingPlan mappingPlan = CsdbMappingPlan.compile(header);
+        assertEquals(attributes.size(), mappingPlan.columnCount());
+        final CsvTokenizer tokenizer = new CsvTokenizer(';');
+        for (int row = 0; row < ROWS; row++) {
+            final String line = attributes.stream().map(attribute -> valueOf(attribute, random)).collect(Collectors.joining(";"));
+            assertEquals(BaselineCsdbParser.createTransformedCsdb(line, columnOrder), mappingPlan.map(tokenizer.reset(line)), line);
+        }
+    }
+
+    static String valueOf(final CSDBSchema attribute, final Random random) {
+        // The key attributes are mandatory, all other attributes may be empty
+        if (attribute == IDENTIFIER) return "XS" + (1_000_000_000L + random.nextInt(1_000_000_000));
+        if (attribute == PERIOD) return String.valueOf(201900 + 1 + random.nextInt(12));
+        if (attribute == VERSION) return String.valueOf(random.nextInt(5));
+        if (random.nextInt(4) == 0) return random.nextBoolean() ? "" : " ";
+        if (DATES.contains(attribute)) {
+            // Days beyond the end of the month are changed to its last day by both parsers
+            return String.format("%04d-%02d-%02d", 1990 + random.nextInt(40), 1 + random.nextInt(12), 1 + random.nextInt(31));
+        }
+        if (DECIMALS.contains(attribute)) {
+            if (random.nextBoolean()) return DECIMAL_VALUES[random.nextInt(DECIMAL_VALUES.length)];
+            return random.nextInt() + "." + random.nextInt(1000);
+        }
+        if (TEXTS.contains(attribute)) return "Name " + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+        // Code columns have few distinct values, which are taken from their intern tables
+        return CODES[random.nextInt(CODES.length)];
+    }
+}
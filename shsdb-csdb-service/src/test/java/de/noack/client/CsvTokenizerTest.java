@@ -0,0 +1,109 @@
+package de.noack.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author davidnoack
+ */
+public class CsvTokenizerTest {
+    private final CsvTokenizer tokenizer = new CsvTokenizer(';');
+
+    @Test
+    public void keepsTrailingEmptyFields() {
+        tokenizer.reset("a;;b;;");
+        assertEquals(5, tokenizer.fieldCount());
+        assertEquals("a", tokenizer.getString(0));
+        assertTrue(tokenizer.isEmpty(1));
+        assertEquals("b", tokenizer.getString(2));
+        assertTrue(tokenizer.isEmpty(3));
+        assertTrue(tokenizer.isEmpty(4));
+        assertNull(tokenizer.getString(4));
+    }
+
+    @Test
+    public void regardsFieldsBeyondTheLineAsEmpty() {
+        tokenizer.reset("a");
+        assertEquals(1, tokenizer.fieldCount());
+        assertTrue(tokenizer.isEmpty(1));
+        assertTrue(tokenizer.isEmpty(-1));
+        assertNull(tokenizer.getInteger(1));
+        assertNull(tokenizer.getBigDecimal(1));
+    }
+
+    @Test
+    public void trimsFieldsLikeStringTrim() {
+        tokenizer.reset(" a \t;   ; b");
+        assertEquals("a", tokenizer.getString(0));
+        assertTrue(tokenizer.isEmpty(1));
+        assertEquals("b", tokenizer.getString(2));
+    }
+
+    @Test
+    public void growsBeyondItsInitialCapacity() {
+        final StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            if (i > 0) line.append(';');
+            line.append(i);
+        }
+        tokenizer.reset(line);
+        assertEquals(200, tokenizer.fieldCount());
+        assertEquals(199, tokenizer.parseInt(199));
+        // A shorter line must not see the fields of the previous one
+        tokenizer.reset("1;2");
+        assertEquals(2, tokenizer.fieldCount());
+        assertTrue(tokenizer.isEmpty(2));
+    }
+
+    @Test
+    public void parsesIntegersUpToTheirBounds() {
+        tokenizer.reset("2147483647;-2147483648;+42;0;-0");
+        assertEquals(Integer.MAX_VALUE, tokenizer.parseInt(0));
+        assertEquals(Integer.MIN_VALUE, tokenizer.parseInt(1));
+        assertEquals(42, tokenizer.parseInt(2));
+        assertEquals(0, tokenizer.parseInt(3));
+        assertEquals(0, tokenizer.parseInt(4));
+    }
+
+    @Test
+    public void rejectsIntegersLikeIntegerParseInt() {
+        tokenizer.reset("2147483648;-2147483649;99999999999999999999;-;+;1a;1.0;");
+        for (int field = 0; field < tokenizer.fieldCount(); field++) {
+            final int invalidField = field;
+            assertThrows(NumberFormatException.class, () -> tokenizer.parseInt(invalidField), "Field " + field);
+        }
+    }
+
+    @Test
+    public void parsesDecimalsLikeBigDecimal() {
+        final String[] values = {"0", "-0", "-0.00", "1", "+1", "-1", "12.50", ".5", "5.", "-.5", "0.000000000000000001", "123456789012345678",
+                "-123456789.012345678", "1234567890123456789", "12345678901234567890.123", "1E+3", "-1.5e-7", "9223372036854775807"};
+        tokenizer.reset(String.join(";", values));
+        for (int field = 0; field < values.length; field++) {
+            final BigDecimal expected = new BigDecimal(values[field]);
+            final BigDecimal actual = tokenizer.getBigDecimal(field);
+            // Scale has to be kept as well, so that the value is compared with equals instead of compareTo
+            assertEquals(expected, actual, values[field]);
+        }
+    }
+
+    @Test
+    public void rejectsDecimalsLikeBigDecimal() {
+        tokenizer.reset("-;+;.;1.2.3;1,5;abc");
+        for (int field = 0; field < tokenizer.fieldCount(); field++) {
+            final int invalidField = field;
+            assertThrows(NumberFormatException.class, () -> tokenizer.getBigDecimal(invalidField), "Field " + field);
+        }
+    }
+
+    @Test
+    public void comparesIgnoringCase() {
+        tokenizer.reset("Yes; ;no");
+        assertTrue(tokenizer.equalsIgnoreCase(0, "YES"));
+        assertTrue(tokenizer.equalsIgnoreCase(1, ""));
+        assertFalse(tokenizer.equalsIgnoreCase(2, "not"));
+    }
+}
@@ -0,0 +1,83 @@
+package de.noack.client;
+
+import de.noack.commitlog.WireFormat;
+import de.noack.model.CSDB;
+import de.noack.model.CSDBSchema;
+import org.apache.pulsar.client.api.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class compares the size and the time to encode and decode a transformed CSDB of each {@link WireFormat}. It is not part of the regular test
+ * run and has to be started explicitly: mvn test -pl shsdb-csdb-service -Dtest=WireFormatBenchmark
+ *
+ * @author davidnoack
+ */
+public class WireFormatBenchmark {
+    private static final int RECORDS = 20_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    @Test
+    public void compareWireFormats() {
+        final List<CSDBSchema> attributes = Arrays.asList(CSDBSchema.values());
+        final CsdbMappingPlan mappingPlan = CsdbMappingPlan.compile(attributes.stream().map(CSDBSchema::name).collect(Collectors.joining(";")));
+        final CsvTokenizer tokenizer = new CsvTokenizer(';');
+        final Random random = new Random(1);
+        final List<CSDB> csdbs = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            final String line = attributes.stream().map(attribute -> CsdbMappingPlanTest.valueOf(attribute, random)).collect(Collectors.joining(";"));
+            csdbs.add(mappingPlan.map(tokenizer.reset(line)));
+        }
+        for (final WireFormat wireFormat : WireFormat.values()) {
+            final Schema<CSDB> schema = wireFormat.schemaOf(CSDB.class);
+            final byte[][] encoded = new byte[RECORDS][];
+            long checksum = 0;
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                checksum += encodeRound(schema, csdbs, encoded) + decodeRound(schema, encoded);
+            }
+            long encodeNanos = Long.MAX_VALUE;
+            long decodeNanos = Long.MAX_VALUE;
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                long start = System.nanoTime();
+                checksum += encodeRound(schema, csdbs, encoded);
+                encodeNanos = Math.min(encodeNanos, System.nanoTime() - start);
+                start = System.nanoTime();
+                checksum += decodeRound(schema, encoded);
+                decodeNanos = Math.min(decodeNanos, System.nanoTime() - start);
+            }
+            long bytes = 0;
+            for (int i = 0; i < RECORDS; i++) {
+                bytes += encoded[i].length;
+            }
+            // A format which loses information would make the comparison meaningless
+            assertEquals(csdbs.get(RECORDS - 1), schema.decode(encoded[RECORDS - 1]));
+            System.out.printf("%-6s %8.1f bytes, %8.1f ns to encode, %8.1f ns to decode per record (checksum %d)%n", wireFormat,
+                    (double) bytes / RECORDS, (double) encodeNanos / RECORDS, (double) decodeNanos / RECORDS, checksum);
+        }
+    }
+
+    private static long encodeRound(final Schema<CSDB> schema, final List<CSDB> csdbs, final byte[][] encoded) {
+        long checksum = 0;
+        for (int i = 0; i < csdbs.size(); i++) {
+            encoded[i] = schema.encode(csdbs.get(i));
+            checksum += encoded[i].length;
+        }
+        return checksum;
+    }
+
+    private static long decodeRound(final Schema<CSDB> schema, final byte[][] encoded) {
+        long checksum = 0;
+        for (final byte[] bytes : encoded) {
+            checksum += schema.decode(bytes).getCsdbKey().getVersion();
+        }
+        return checksum;
+    }
+}
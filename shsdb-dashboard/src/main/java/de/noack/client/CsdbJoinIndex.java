@@ -0,0 +1,165 @@
+package de.noack.client;
+
+import lombok.Value;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class represents an index of CSDB data by ISIN and period which is used by {@link MicroDataJoin}. An ISIN consists of twelve ASCII
+ * characters and is packed into two longs of seven bits per character, so that neither probing nor inserting creates a string or a key object.
+ * Keys are held in an open addressing table of primitive arrays. Only the latest version of a security is kept, together with the row of its
+ * CSDB within a {@link CsdbColumnStore}. Identifiers which cannot be packed are held in a regular map instead. An instance must not be accessed
+ * by multiple threads concurrently.
+ *
+ * @author davidnoack
+ */
+public final class CsdbJoinIndex {
+    public static final int NO_ROW = -1;
+    public static final int NO_VERSION = -1;
+    private static final int ISIN_LENGTH = 12;
+    private static final int CHARS_PER_LONG = ISIN_LENGTH / 2;
+    private static final int BITS_PER_CHAR = 7;
+    private static final int INITIAL_CAPACITY = 1024;
+    private long[] highs = new long[INITIAL_CAPACITY];
+    private long[] lows = new long[INITIAL_CAPACITY];
+    private int[] periods = new int[INITIAL_CAPACITY];
+    private int[] versions = new int[INITIAL_CAPACITY];
+    private int[] rows = newRows(INITIAL_CAPACITY);
+    private int size;
+    private final Map<FallbackKey, VersionedRow> fallback = new HashMap<>();
+
+    /**
+     * Returns the row of the latest CSDB of the given security or {@link #NO_ROW} if there is none.
+     */
+    public int get(final String isin, final int period) {
+        if (!isPackable(isin)) {
+            final VersionedRow versionedRow = fallback.get(new FallbackKey(isin, period));
+            return versionedRow == null ? NO_ROW : versionedRow.row;
+        }
+        final int slot = findSlot(pack(isin, 0), pack(isin, CHARS_PER_LONG), period);
+        return rows[slot];
+    }
+
+    /**
+     * Returns the version of the latest CSDB of the given security or {@link #NO_VERSION} if there is none.
+     */
+    public int versionOf(final String isin, final int period) {
+        if (!isPackable(isin)) {
+            final VersionedRow versionedRow = fallback.get(new FallbackKey(isin, period));
+            return versionedRow == null ? NO_VERSION : versionedRow.version;
+        }
+        final int slot = findSlot(pack(isin, 0), pack(isin, CHARS_PER_LONG), period);
+        return rows[slot] == NO_ROW ? NO_VERSION : versions[slot];
+    }
+
+    /**
+     * Adds the given row unless a higher version of the same security is already indexed.
+     */
+    public void put(final String isin, final int period, final int version, final int row) {
+        if (!isPackable(isin)) {
+            final FallbackKey fallbackKey = new FallbackKey(isin, period);
+            final VersionedRow indexed = fallback.get(fallbackKey);
+            if (indexed == null || indexed.version <= version) fallback.put(fallbackKey, new VersionedRow(version, row));
+            return;
+        }
+        final long high = pack(isin, 0);
+        final long low = pack(isin, CHARS_PER_LONG);
+        int slot = findSlot(high, low, period);
+        if (rows[slot] != NO_ROW) {
+            if (versions[slot] <= version) {
+                versions[slot] = version;
+                rows[slot] = row;
+            }
+            return;
+        }
+        // Keep the load factor at or below one half so that probe sequences stay short
+        if ((size + 1) * 2 > rows.length) {
+            resize();
+            slot = findSlot(high, low, period);
+        }
+        highs[slot] = high;
+        lows[slot] = low;
+        periods[slot] = period;
+        versions[slot] = version;
+        rows[slot] = row;
+        size++;
+    }
+
+    public int size() {
+        return size + fallback.size();
+    }
+
+    private int findSlot(final long high, final long low, final int period) {
+        final int mask = rows.length - 1;
+        int slot = hash(high, low, period) & mask;
+        while (rows[slot] != NO_ROW && (highs[slot] != high || lows[slot] != low || periods[slot] != period)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        final long[] oldHighs = highs;
+        final long[] oldLows = lows;
+        final int[] oldPeriods = periods;
+        final int[] oldVersions = versions;
+        final int[] oldRows = rows;
+        final int capacity = oldRows.length * 2;
+        highs = new long[capacity];
+        lows = new long[capacity];
+        periods = new int[capacity];
+        versions = new int[capacity];
+        rows = newRows(capacity);
+        for (int i = 0; i < oldRows.length; i++) {
+            if (oldRows[i] == NO_ROW) continue;
+            final int slot = findSlot(oldHighs[i], oldLows[i], oldPeriods[i]);
+            highs[slot] = oldHighs[i];
+            lows[slot] = oldLows[i];
+            periods[slot] = oldPeriods[i];
+            versions[slot] = oldVersions[i];
+            rows[slot] = oldRows[i];
+        }
+    }
+
+    private static int[] newRows(final int capacity) {
+        final int[] newRows = new int[capacity];
+        Arrays.fill(newRows, NO_ROW);
+        return newRows;
+    }
+
+    private static int hash(final long high, final long low, final int period) {
+        long hash = high * 0x9E3779B97F4A7C15L + low;
+        hash = (hash ^ (hash >>> 29)) * 0xBF58476D1CE4E5B9L + period;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static boolean isPackable(final String isin) {
+        if (isin.length() != ISIN_LENGTH) return false;
+        for (int i = 0; i < ISIN_LENGTH; i++) {
+            if (isin.charAt(i) > 0x7F) return false;
+        }
+        return true;
+    }
+
+    private static long pack(final String isin, final int offset) {
+        long packed = 0;
+        for (int i = offset; i < offset + CHARS_PER_LONG; i++) {
+            packed = packed << BITS_PER_CHAR | isin.charAt(i);
+        }
+        return packed;
+    }
+
+    @Value
+    private static class FallbackKey {
+        String isin;
+        int period;
+    }
+
+    @Value
+    private static class VersionedRow {
+        int version;
+        int row;
+    }
+}
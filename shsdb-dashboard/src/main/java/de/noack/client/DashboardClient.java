@@ -1,19 +1,16 @@
 package de.noack.client;
 
+import de.noack.commitlog.Position;
 import de.noack.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static de.noack.model.Security.map;
 
 public interface DashboardClient {
-    Set<ReportedData> CONSUMED_REPORTS = new HashSet<>();
-    Map<String, CSDB> CONSUMED_CSDBS = new HashMap<>();
     Logger LOGGER = LoggerFactory.getLogger(DashboardClient.class);
     String REPORTS_TOPIC_NAME = "reports-transformed";
     String REPORTS_SUBSCRIPTION_NAME = "reports-transformed-subscription";
@@ -41,7 +38,14 @@ public interface DashboardClient {
 
     void consumeReports();
 
-    void produceMicroData();
+    void consumeMicroData();
+
+    /**
+     * Produces the given micro data without waiting for it and returns a future which completes once it has been persisted.
+     */
+    CompletableFuture<Position> produceMicroData(final String messageKey, final MicroData microData);
 
     Set<MicroData> readAllMicroData();
+
+    Page<MicroData> pageMicroData(final String next, final int limit);
 }
\ No newline at end of file
@@ -0,0 +1,218 @@
+package de.noack.client;
+
+import de.noack.commitlog.*;
+import de.noack.model.CSDB;
+import de.noack.model.MicroData;
+import de.noack.model.Page;
+import de.noack.model.ReportedData;
+import de.noack.service.MicroDataAggregates;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static de.noack.client.DashboardClient.createMicroData;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * This class represents the implementation of {@link DashboardClient} on top of the commit log chosen in the application.properties file. It
+ * consumes enriched reported and CSDB data from the respective topics and links them with a {@link MicroDataJoin} as soon as both sides of a pair
+ * have arrived. The resulting micro data is produced to the topic "microdata-dashboard", which every instance reads as a whole to maintain the
+ * {@link MicroDataAggregates}.
+ * <p>
+ * Both transformed topics are ordered by ISIN and consumed by sliced subscriptions, each instance owning the same slice of ISINs on both topics,
+ * so that the join scales out with the number of instances. A batch of reports or CSDBs is committed once all micro data linked within the batch
+ * has been persisted and the reports still waiting for their CSDB have been journaled or spilled. As the CSDBs of the join state are kept in
+ * memory, the CSDB slice is read from its beginning on every start.
+ *
+ * @author davidnoack
+ */
+@ApplicationScoped
+public class DashboardLogClient implements DashboardClient {
+    private static final int MAX_POLLED_RECORDS = 1000;
+    private static final long FOLLOW_TIMEOUT_MILLIS = 500;
+    private Topic<CSDB> csdbTopic;
+    private Topic<ReportedData> reportTopic;
+    private Topic<MicroData> dashboardTopic;
+    private ConsumerLoop<CSDB> csdbLoop;
+    private ConsumerLoop<ReportedData> reportLoop;
+    private Thread microDataThread;
+    private MicroDataJoin microDataJoin;
+    @Inject
+    CommitLogProvider commitLogProvider;
+    @Inject
+    MicroDataAggregates microDataAggregates;
+    @Inject
+    @ConfigProperty(name = "dashboard.join.max-pending-reports")
+    int maxPendingReports;
+    @Inject
+    @ConfigProperty(name = "dashboard.join.pending-report-ttl-minutes")
+    long pendingReportTtlMinutes;
+    @Inject
+    @ConfigProperty(name = "dashboard.join.spill-directory")
+    String spillDirectory;
+    @Inject
+    @ConfigProperty(name = "dashboard.join.instance-index")
+    int instanceIndex;
+    @Inject
+    @ConfigProperty(name = "dashboard.join.instance-count")
+    int instanceCount;
+    @Inject
+    @ConfigProperty(name = "wireformat")
+    WireFormat wireFormat;
+    private volatile boolean isApplicationRunning;
+
+    void onStart(@Observes final StartupEvent ev) {
+        isApplicationRunning = true;
+        try {
+            final CommitLogClient client = commitLogProvider.client();
+            csdbTopic = client.openTopic(CSDB_TOPIC_NAME, TopicType.COMPACTED_RECORDS, wireFormat.schemaOf(CSDB.class));
+            reportTopic = client.openTopic(REPORTS_TOPIC_NAME, TopicType.COMPACTED_RECORDS, wireFormat.schemaOf(ReportedData.class));
+            dashboardTopic = client.openTopic(DASHBOARD_TOPIC_NAME, TopicType.COMPACTED_RECORDS, wireFormat.schemaOf(MicroData.class));
+            microDataJoin = new MicroDataJoin((csdb, reportedData) ->
+                    produceMicroData(reportedData.getReportedDataKey().toString(), createMicroData(csdb, reportedData)),
+                    dashboardTopic::flush, maxPendingReports, MINUTES.toMillis(pendingReportTtlMinutes), Paths.get(spillDirectory));
+            microDataJoin.start();
+            // Both subscriptions own the same slice of ISINs, so that reports and CSDB data of a security arrive at the same instance
+            csdbLoop = new ConsumerLoop<>(CSDB_SUBSCRIPTION_NAME,
+                    csdbTopic.subscribe(CSDB_SUBSCRIPTION_NAME, SubscriptionOptions.sliced(instanceIndex, instanceCount, false)),
+                    MAX_POLLED_RECORDS, this::linkCsdbs);
+            reportLoop = new ConsumerLoop<>(REPORTS_SUBSCRIPTION_NAME,
+                    reportTopic.subscribe(REPORTS_SUBSCRIPTION_NAME, SubscriptionOptions.sliced(instanceIndex, instanceCount, true)),
+                    MAX_POLLED_RECORDS, this::linkReports);
+            // Every instance aggregates the whole topic, as each one only produces the micro data of its own slice
+            final LogReader<MicroData> microDataReader = dashboardTopic.follow(null);
+            microDataThread = new Thread(() -> aggregateMicroData(microDataReader), "microdata-dashboard-aggregates");
+            consumeCsdb();
+            consumeReports();
+            consumeMicroData();
+        } catch (final IOException | IllegalArgumentException e) {
+            LOGGER.error("Error occurred during startup! Reason: {}", e.getMessage());
+        }
+    }
+
+    void onStop(@Observes final ShutdownEvent ev) {
+        if (!isApplicationRunning) return;
+        isApplicationRunning = false;
+        // The loops close their subscriptions themselves, because a subscription must not be accessed by another thread
+        if (csdbLoop != null) csdbLoop.stop();
+        if (reportLoop != null) reportLoop.stop();
+        try {
+            if (microDataThread != null) microDataThread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (microDataJoin != null) microDataJoin.close();
+            if (csdbTopic != null) csdbTopic.close();
+            if (reportTopic != null) reportTopic.close();
+            if (dashboardTopic != null) dashboardTopic.close();
+        } catch (final IOException e) {
+            LOGGER.error("Error occurred during close! Reason: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void consumeCsdb() {
+        csdbLoop.start();
+    }
+
+    private void linkCsdbs(final List<LogRecord<CSDB>> records) throws IOException {
+        // Link all reports which have been waiting for these CSDBs
+        microDataJoin.addCsdbs(valuesOf(records));
+    }
+
+    @Override
+    public void consumeReports() {
+        reportLoop.start();
+    }
+
+    private void linkReports(final List<LogRecord<ReportedData>> records) throws IOException {
+        // Link the reports at once if their CSDB is known already, otherwise they wait for the CSDB to arrive. A report which could not be
+        // journaled or spilled fails the batch.
+        microDataJoin.addReports(valuesOf(records));
+    }
+
+    private static <V> List<V> valuesOf(final List<LogRecord<V>> records) {
+        final List<V> values = new ArrayList<>(records.size());
+        for (final LogRecord<V> record : records) {
+            try {
+                values.add(record.getValue());
+            } catch (final RuntimeException e) {
+                // A record which cannot be decoded would fail every retry of its batch, so that it must not block the records after it
+                LOGGER.error("Record {} at position {} cannot be decoded. Reason: {}", record.getKey(), record.getPosition(), e.getMessage());
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void consumeMicroData() {
+        microDataThread.start();
+    }
+
+    private void aggregateMicroData(final LogReader<MicroData> reader) {
+        try (final LogReader<MicroData> microDataReader = reader) {
+            while (isApplicationRunning) {
+                try {
+                    final LogRecord<MicroData> record = microDataReader.next(FOLLOW_TIMEOUT_MILLIS);
+                    if (record != null) microDataAggregates.add(record.getKey(), record.getValue());
+                } catch (final IOException | RuntimeException e) {
+                    LOGGER.error("Error while consuming micro data. Reason {}", e.getMessage());
+                }
+            }
+        } catch (final IOException e) {
+            LOGGER.error("Error occurred during close! Reason: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Position> produceMicroData(final String messageKey, final MicroData microData) {
+        return dashboardTopic.produceAsync(messageKey, null, microData, Collections.emptyMap());
+    }
+
+    @Override
+    public Page<MicroData> pageMicroData(final String next, final int limit) {
+        final List<MicroData> records = new ArrayList<>(limit);
+        final Position[] lastPosition = {null};
+        final Position position = next != null ? positionOf(next) : null;
+        try {
+            dashboardTopic.forEachAfter(position, record -> {
+                records.add(record.getValue());
+                lastPosition[0] = record.getPosition();
+                return records.size() < limit;
+            });
+        } catch (final IOException e) {
+            LOGGER.error("Error during reading from topic {} occurred. Reason: {}", DASHBOARD_TOPIC_NAME, e.getMessage());
+            throw new RuntimeException("Page of topic " + DASHBOARD_TOPIC_NAME + " could not be read!");
+        }
+        // Only a full page is continued, so that the end of the topic has been reached with the first page which is not full
+        return new Page<>(records, records.size() == limit ? Page.tokenOf(lastPosition[0].toByteArray()) : null);
+    }
+
+    private Position positionOf(final String next) {
+        try {
+            return dashboardTopic.positionOf(Page.positionOf(next));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Token " + next + " is invalid!");
+        }
+    }
+
+    @Override
+    public Set<MicroData> readAllMicroData() {
+        final Set<MicroData> microData = new HashSet<>();
+        try {
+            dashboardTopic.forEach(record -> microData.add(record.getValue()) || true);
+        } catch (final IOException e) {
+            LOGGER.error("Error during reading from topic {} occurred. Reason: {}", DASHBOARD_TOPIC_NAME, e.getMessage());
+        }
+        return microData;
+    }
+}
@@ -0,0 +1,371 @@
+package de.noack.client;
+
+import de.noack.model.CSDB;
+import de.noack.model.CSDBKey;
+import de.noack.model.ReportedData;
+import de.noack.model.ReportedDataKey;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.noack.client.CsdbJoinIndex.NO_ROW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * This class represents an event driven symmetric hash join of reported data and CSDB data. Reported data of a period is linked with CSDB data
+ * of the following period for the same ISIN, preferring CSDB version 1 over version 0. Both sides are indexed by ISIN and CSDB period: an arriving
+ * report probes the CSDB index once and is kept as pending if no CSDB is available yet, an arriving CSDB releases all pending reports waiting for
+ * it. Matches are handed to a {@link MatchHandler} as soon as the second side of a pair has arrived. CSDBs are kept off-heap in a
+ * {@link CsdbColumnStore}, indexed by a {@link CsdbJoinIndex}, and only rebuilt for a match.
+ * <p>
+ * Reports, CSDBs and maintenance runs each flush the matches they have handed over and wait until these have been persisted, so that a caller
+ * only commits what it has consumed once its matches are safe. A report whose match could not be persisted is kept as pending once more and
+ * retried by the next maintenance run. Pending reports are appended to a {@link PendingReportJournal} and restored from it on start, so that a
+ * report which has been committed while it was waiting for its CSDB is not lost on a restart.
+ * <p>
+ * The join state is split into stripes by join key, each guarded by its own lock, so that reports and CSDBs of different securities are joined
+ * concurrently. The number of pending reports kept in memory is capped. Reports arriving beyond that cap are spilled to a {@link ReportSpillFile}
+ * and loaded back once enough pending reports have been matched or evicted. Pending reports which have not been matched within their time to live
+ * are evicted.
+ *
+ * @author davidnoack
+ */
+public class MicroDataJoin implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MicroDataJoin.class);
+    private static final int STRIPE_COUNT = 64;
+    private static final long MAINTENANCE_INTERVAL_MILLIS = 10_000;
+    private static final int PREFERRED_VERSION = 1;
+    private static final int FALLBACK_VERSION = 0;
+    // Below this size the journal is not rewritten, however many of its reports have been matched or evicted
+    private static final long MIN_JOURNAL_REPORTS = 10_000;
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+    private final AtomicInteger pendingReportCount = new AtomicInteger();
+    private final ScheduledExecutorService maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "microdata-join-maintenance"));
+    private final MatchHandler matchHandler;
+    private final Flushable matchFlusher;
+    private final CsdbColumnStore csdbColumnStore = new CsdbColumnStore();
+    private final int maxPendingReports;
+    private final long pendingReportTtlMillis;
+    private final ReportSpillFile reportSpillFile;
+    private final PendingReportJournal pendingReportJournal;
+
+    /**
+     * Creates a join whose matches are handed to the given handler. The given flusher is called once the matches of a batch of reports, a batch
+     * of CSDBs or a maintenance run have been handed over, before waiting for them to be persisted.
+     */
+    public MicroDataJoin(final MatchHandler matchHandler, final Flushable matchFlusher, final int maxPendingReports,
+                         final long pendingReportTtlMillis, final Path spillDirectory) throws IOException {
+        this.matchHandler = matchHandler;
+        this.matchFlusher = matchFlusher;
+        this.maxPendingReports = maxPendingReports;
+        this.pendingReportTtlMillis = pendingReportTtlMillis;
+        this.reportSpillFile = new ReportSpillFile(spillDirectory);
+        this.pendingReportJournal = new PendingReportJournal(spillDirectory);
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Restores the pending reports of the journal and starts the maintenance of the join state.
+     */
+    public void start() throws IOException {
+        restorePendingReports();
+        maintenanceExecutor.scheduleWithFixedDelay(this::maintain, MAINTENANCE_INTERVAL_MILLIS, MAINTENANCE_INTERVAL_MILLIS, MILLISECONDS);
+    }
+
+    private void restorePendingReports() throws IOException {
+        final long expiryMillis = System.currentTimeMillis() - pendingReportTtlMillis;
+        final List<Match> matches = new ArrayList<>();
+        pendingReportJournal.read((reportedData, arrivalMillis) -> {
+            if (arrivalMillis < expiryMillis) return;
+            try {
+                // The reports are in the journal already
+                final Match match = addReport(reportedData, arrivalMillis, false);
+                if (match != null) matches.add(match);
+            } catch (final IOException | RuntimeException e) {
+                LOGGER.error("Error while restoring pending report {}. Reason: {}", reportedData.getReportedDataKey(), e.getMessage());
+            }
+        });
+        // The journal is rewritten at once, so that it neither keeps the expired reports nor those which have been spilled while restoring
+        rewriteJournal();
+        LOGGER.info("Restored {} pending reports", pendingReportCount.get());
+        publish(matches);
+    }
+
+    /**
+     * Links the given reports with their CSDBs if they are known already and returns once the micro data of these matches has been persisted.
+     * All other reports are journaled and kept until a matching CSDB arrives. A report which cannot be linked at all is skipped.
+     */
+    public void addReports(final List<ReportedData> reports) throws IOException {
+        final long arrivalMillis = System.currentTimeMillis();
+        final List<Match> matches = new ArrayList<>();
+        for (final ReportedData reportedData : reports) {
+            try {
+                final Match match = addReport(reportedData, arrivalMillis, true);
+                if (match != null) matches.add(match);
+            } catch (final RuntimeException e) {
+                LOGGER.error("Report {} cannot be linked. Reason: {}", reportedData.getReportedDataKey(), e.getMessage());
+            }
+        }
+        publish(matches);
+    }
+
+    /**
+     * Returns the match of the given report if its CSDB is known already. Otherwise the report is kept as pending, or spilled if the number of
+     * pending reports has reached its cap, and null is returned.
+     */
+    private Match addReport(final ReportedData reportedData, final long arrivalMillis, final boolean isJournaled) throws IOException {
+        final ReportedDataKey reportedDataKey = reportedData.getReportedDataKey();
+        final String isin = reportedDataKey.getIsin();
+        // Reported data is linked with the CSDB of the following period
+        final int period = reportedDataKey.getPeriod() + 1;
+        final Stripe stripe = stripeOf(isin, period);
+        final PendingReport pendingReport = new PendingReport(reportedData, arrivalMillis);
+        final int csdbRow;
+        boolean isParked = false;
+        synchronized (stripe) {
+            csdbRow = stripe.csdbs.get(isin, period);
+            if (csdbRow == NO_ROW && pendingReportCount.get() < maxPendingReports) {
+                stripe.addPendingReport(new JoinKey(isin, period), pendingReport);
+                pendingReportCount.incrementAndGet();
+                isParked = true;
+            }
+        }
+        if (csdbRow != NO_ROW) return new Match(csdbRow, pendingReport);
+        // The journal is appended outside of the stripe lock, as a rewrite of the journal locks the stripes while holding the journal
+        if (!isParked) reportSpillFile.append(reportedData, arrivalMillis);
+        else if (isJournaled) pendingReportJournal.append(reportedData, arrivalMillis);
+        return null;
+    }
+
+    /**
+     * Adds the given CSDBs to the index, links all pending reports which have been waiting for them and returns once the micro data of these
+     * matches has been persisted. A CSDB which cannot be linked at all is skipped.
+     */
+    public void addCsdbs(final List<CSDB> csdbs) throws IOException {
+        final List<Match> matches = new ArrayList<>();
+        for (final CSDB csdb : csdbs) {
+            try {
+                addCsdb(csdb, matches);
+            } catch (final RuntimeException e) {
+                LOGGER.error("CSDB {} cannot be linked. Reason: {}", csdb.getCsdbKey(), e.getMessage());
+            }
+        }
+        publish(matches);
+    }
+
+    private void addCsdb(final CSDB csdb, final List<Match> matches) {
+        final CSDBKey csdbKey = csdb.getCsdbKey();
+        final int version = csdbKey.getVersion();
+        if (version != PREFERRED_VERSION && version != FALLBACK_VERSION) return;
+        final String isin = csdbKey.getIdentifier();
+        final int period = csdbKey.getPeriod();
+        final Stripe stripe = stripeOf(isin, period);
+        final int indexedRow;
+        final List<PendingReport> matchedReports;
+        synchronized (stripe) {
+            // A re-delivered or newer CSDB replaces the indexed one within its row, so that the store grows with the number of securities only
+            final int row = stripe.csdbs.get(isin, period);
+            if (row == NO_ROW) {
+                stripe.csdbs.put(isin, period, version, csdbColumnStore.append(csdb));
+            } else if (stripe.csdbs.versionOf(isin, period) <= version) {
+                csdbColumnStore.set(row, csdb);
+                stripe.csdbs.put(isin, period, version, row);
+            }
+            indexedRow = stripe.csdbs.get(isin, period);
+            matchedReports = stripe.pendingReports.remove(new JoinKey(isin, period));
+        }
+        if (matchedReports == null) return;
+        pendingReportCount.addAndGet(-matchedReports.size());
+        for (final PendingReport pendingReport : matchedReports) {
+            matches.add(new Match(indexedRow, pendingReport));
+        }
+    }
+
+    /**
+     * Hands the given matches to the handler, flushes them and waits until they have been persisted. The report of a match which could not be
+     * persisted is kept as pending once more, regardless of the cap, so that it is retried by the next maintenance run.
+     */
+    private void publish(final List<Match> matches) throws IOException {
+        if (matches.isEmpty()) return;
+        final List<CompletableFuture<?>> sends = new ArrayList<>(matches.size());
+        for (final Match match : matches) {
+            sends.add(send(match));
+        }
+        try {
+            matchFlusher.flush();
+        } catch (final IOException e) {
+            // The sends complete nevertheless, failed ones are kept below
+            LOGGER.error("Error while flushing matches. Reason: {}", e.getMessage());
+        }
+        IOException journalFailure = null;
+        for (int i = 0; i < matches.size(); i++) {
+            final PendingReport pendingReport = matches.get(i).pendingReport;
+            try {
+                sends.get(i).join();
+            } catch (final CompletionException | CancellationException e) {
+                LOGGER.error("Error while handling match for report {}. Reason: {}", pendingReport.reportedData.getReportedDataKey(),
+                        e.getMessage());
+                try {
+                    keepPendingReport(pendingReport);
+                } catch (final IOException journalException) {
+                    journalFailure = journalException;
+                }
+            }
+        }
+        if (journalFailure != null) throw journalFailure;
+    }
+
+    private CompletableFuture<?> send(final Match match) {
+        try {
+            // The CSDB is rebuilt for each match, so that the handler may modify it
+            return matchHandler.onMatch(csdbColumnStore.read(match.csdbRow), match.pendingReport.reportedData);
+        } catch (final RuntimeException e) {
+            final CompletableFuture<?> failedSend = new CompletableFuture<>();
+            failedSend.completeExceptionally(e);
+            return failedSend;
+        }
+    }
+
+    private void keepPendingReport(final PendingReport pendingReport) throws IOException {
+        final ReportedDataKey reportedDataKey = pendingReport.reportedData.getReportedDataKey();
+        final JoinKey joinKey = new JoinKey(reportedDataKey.getIsin(), reportedDataKey.getPeriod() + 1);
+        final Stripe stripe = stripeOf(joinKey.isin, joinKey.period);
+        synchronized (stripe) {
+            stripe.addPendingReport(joinKey, pendingReport);
+        }
+        pendingReportCount.incrementAndGet();
+        pendingReportJournal.append(pendingReport.reportedData, pendingReport.arrivalMillis);
+    }
+
+    private void maintain() {
+        try {
+            final long expiryMillis = System.currentTimeMillis() - pendingReportTtlMillis;
+            int evictedReports = 0;
+            final List<Match> matches = new ArrayList<>();
+            for (final Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    final Iterator<Map.Entry<JoinKey, List<PendingReport>>> iterator = stripe.pendingReports.entrySet().iterator();
+                    while (iterator.hasNext()) {
+                        final Map.Entry<JoinKey, List<PendingReport>> entry = iterator.next();
+                        final int csdbRow = stripe.csdbs.get(entry.getKey().isin, entry.getKey().period);
+                        final List<PendingReport> pendingReports = entry.getValue();
+                        // Reports whose match could not be persisted before are retried
+                        if (csdbRow != NO_ROW) {
+                            for (final PendingReport pendingReport : pendingReports) matches.add(new Match(csdbRow, pendingReport));
+                            pendingReportCount.addAndGet(-pendingReports.size());
+                            pendingReports.clear();
+                        } else {
+                            final int sizeBefore = pendingReports.size();
+                            pendingReports.removeIf(pendingReport -> pendingReport.arrivalMillis < expiryMillis);
+                            evictedReports += sizeBefore - pendingReports.size();
+                        }
+                        if (pendingReports.isEmpty()) iterator.remove();
+                    }
+                }
+            }
+            publish(matches);
+            if (evictedReports > 0) {
+                pendingReportCount.addAndGet(-evictedReports);
+                LOGGER.warn("Evicted {} reports which have not been matched within {} seconds", evictedReports,
+                        MILLISECONDS.toSeconds(pendingReportTtlMillis));
+            }
+            if (pendingReportCount.get() < maxPendingReports / 2 && reportSpillFile.hasSpilledReports()) loadSpilledReports(expiryMillis);
+            if (pendingReportJournal.getReports() > Math.max(MIN_JOURNAL_REPORTS, 2L * pendingReportCount.get())) rewriteJournal();
+        } catch (final Exception e) {
+            LOGGER.error("Error during maintenance of join state occurred. Reason: {}", e.getMessage());
+        }
+    }
+
+    private void loadSpilledReports(final long expiryMillis) throws IOException {
+        LOGGER.info("Loading spilled reports back into the join state");
+        final List<Match> matches = new ArrayList<>();
+        reportSpillFile.drain((reportedData, arrivalMillis) -> {
+            if (arrivalMillis < expiryMillis) return;
+            try {
+                final Match match = addReport(reportedData, arrivalMillis, true);
+                if (match != null) matches.add(match);
+            } catch (final IOException e) {
+                LOGGER.error("Error while loading spilled report {}. Reason: {}", reportedData.getReportedDataKey(), e.getMessage());
+            }
+        });
+        publish(matches);
+    }
+
+    /**
+     * Rewrites the journal with the reports which are still pending. Reports are parked before they are journaled, so that the journal is locked
+     * while the stripes are read and no report parked in between is lost.
+     */
+    private void rewriteJournal() throws IOException {
+        synchronized (pendingReportJournal) {
+            final List<PendingReport> pendingReports = new ArrayList<>(pendingReportCount.get());
+            for (final Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.pendingReports.values().forEach(pendingReports::addAll);
+                }
+            }
+            pendingReportJournal.rewrite(pendingReports);
+        }
+    }
+
+    private Stripe stripeOf(final String isin, final int period) {
+        return stripes[Math.floorMod(31 * isin.hashCode() + period, STRIPE_COUNT)];
+    }
+
+    @Override
+    public void close() throws IOException {
+        maintenanceExecutor.shutdown();
+        try {
+            maintenanceExecutor.awaitTermination(MAINTENANCE_INTERVAL_MILLIS, MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        reportSpillFile.close();
+        pendingReportJournal.close();
+    }
+
+    /**
+     * Hands a match over for persistence and returns a future which completes once it has been persisted.
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+        CompletableFuture<?> onMatch(final CSDB csdb, final ReportedData reportedData);
+    }
+
+    private static final class Stripe {
+        private final CsdbJoinIndex csdbs = new CsdbJoinIndex();
+        private final Map<JoinKey, List<PendingReport>> pendingReports = new HashMap<>();
+
+        private void addPendingReport(final JoinKey joinKey, final PendingReport pendingReport) {
+            pendingReports.computeIfAbsent(joinKey, key -> new ArrayList<>()).add(pendingReport);
+        }
+    }
+
+    @Value
+    private static class JoinKey {
+        String isin;
+        int period;
+    }
+
+    @Value
+    static class PendingReport {
+        ReportedData reportedData;
+        long arrivalMillis;
+    }
+
+    @Value
+    private static class Match {
+        int csdbRow;
+        PendingReport pendingReport;
+    }
+}
@@ -0,0 +1,127 @@
+package de.noack.client;
+
+import de.noack.client.ReportSpillFile.SpilledReportConsumer;
+import de.noack.model.ReportedData;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.impl.schema.JSONSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * This class represents the journal of the reports which {@link MicroDataJoin} keeps in memory while they are waiting for their CSDB. A report is
+ * appended and flushed once it has been parked, so that it has been persisted before the batch it has been consumed with is committed, and the
+ * pending reports are restored from the journal after a restart. Records are stored like those of a {@link ReportSpillFile}.
+ * <p>
+ * Matched and evicted reports are not removed one by one. Instead, the journal is rewritten with the reports which are still pending from time to
+ * time. A restored report may therefore have been matched already, its micro data is then produced once more with the same key.
+ *
+ * @author davidnoack
+ */
+public final class PendingReportJournal implements Closeable {
+    private static final String JOURNAL_FILE_NAME = "pending-reports.journal";
+    private static final String REWRITTEN_FILE_NAME = JOURNAL_FILE_NAME + ".rewritten";
+    private static final int RECORD_HEADER_BYTES = Long.BYTES + Integer.BYTES;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PendingReportJournal.class);
+    private final Schema<ReportedData> schema = JSONSchema.of(ReportedData.class);
+    private final Path journalFile;
+    private final Path rewrittenFile;
+    private DataOutputStream output;
+    private long reports;
+
+    public PendingReportJournal(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        journalFile = directory.resolve(JOURNAL_FILE_NAME);
+        rewrittenFile = directory.resolve(REWRITTEN_FILE_NAME);
+    }
+
+    public synchronized void append(final ReportedData reportedData, final long arrivalMillis) throws IOException {
+        if (output == null) output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(journalFile, CREATE, APPEND)));
+        write(output, reportedData, arrivalMillis);
+        output.flush();
+        reports++;
+    }
+
+    /**
+     * Returns the number of reports within the journal, including those which have been matched or evicted since it has been rewritten.
+     */
+    public synchronized long getReports() {
+        return reports;
+    }
+
+    /**
+     * Hands over all reports of the journal in the order they have been appended. A record which has been cut off by a crash during its append
+     * ends the journal.
+     */
+    public synchronized void read(final SpilledReportConsumer consumer) throws IOException {
+        if (!Files.exists(journalFile)) return;
+        final long size = Files.size(journalFile);
+        try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+            long position = 0;
+            while (position + RECORD_HEADER_BYTES <= size) {
+                final long arrivalMillis = input.readLong();
+                final int length = input.readInt();
+                if (length < 0 || position + RECORD_HEADER_BYTES + length > size) break;
+                final byte[] bytes = new byte[length];
+                input.readFully(bytes);
+                position += RECORD_HEADER_BYTES + length;
+                handOver(consumer, bytes, arrivalMillis);
+            }
+            if (position < size) LOGGER.warn("Ignoring {} bytes of a report cut off at the end of {}", size - position, journalFile);
+        }
+    }
+
+    private void handOver(final SpilledReportConsumer consumer, final byte[] bytes, final long arrivalMillis) {
+        final ReportedData reportedData;
+        try {
+            reportedData = schema.decode(bytes);
+        } catch (final RuntimeException e) {
+            LOGGER.error("Skipping journaled report which cannot be decoded. Reason: {}", e.getMessage());
+            return;
+        }
+        consumer.accept(reportedData, arrivalMillis);
+    }
+
+    /**
+     * Replaces the journal by one which contains the given reports only. The new journal is written completely before it replaces the current one,
+     * so that a crash during the rewrite leaves the current journal behind.
+     */
+    public synchronized void rewrite(final List<MicroDataJoin.PendingReport> pendingReports) throws IOException {
+        closeOutput();
+        try (final DataOutputStream rewrittenOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(rewrittenFile, CREATE,
+                TRUNCATE_EXISTING, WRITE)))) {
+            for (final MicroDataJoin.PendingReport pendingReport : pendingReports) {
+                write(rewrittenOutput, pendingReport.getReportedData(), pendingReport.getArrivalMillis());
+            }
+        }
+        Files.move(rewrittenFile, journalFile, ATOMIC_MOVE, REPLACE_EXISTING);
+        reports = pendingReports.size();
+    }
+
+    private void write(final DataOutputStream output, final ReportedData reportedData, final long arrivalMillis) throws IOException {
+        final byte[] bytes = schema.encode(reportedData);
+        output.writeLong(arrivalMillis);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private void closeOutput() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeOutput();
+    }
+}
@@ -0,0 +1,145 @@
+package de.noack.client;
+
+import de.noack.model.ReportedData;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.impl.schema.JSONSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * This class represents an append-only file of reported data which could not be kept in memory by {@link MicroDataJoin}. Each record is stored
+ * with its arrival time, so that the time to live of a report does not start again when it is loaded back. Draining hands the spilled reports
+ * over in the order they have been spilled while new reports are written to a fresh file.
+ * <p>
+ * Every record is flushed to the file when it is appended, so that spilled reports survive a restart of the application. A record which has been
+ * cut off by a crash during its append ends the file. The position up to which a file has been drained is kept next to it, so that a drain which
+ * has been interrupted continues behind the reports already handed over instead of handing them over again.
+ *
+ * @author davidnoack
+ */
+public final class ReportSpillFile implements Closeable {
+    private static final String SPILL_FILE_NAME = "pending-reports.spill";
+    private static final String DRAINING_FILE_NAME = SPILL_FILE_NAME + ".draining";
+    private static final String DRAINED_POSITION_FILE_NAME = DRAINING_FILE_NAME + ".position";
+    private static final int RECORD_HEADER_BYTES = Long.BYTES + Integer.BYTES;
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReportSpillFile.class);
+    private final Schema<ReportedData> schema = JSONSchema.of(ReportedData.class);
+    private final Path spillFile;
+    private final Path drainingFile;
+    private final Path drainedPositionFile;
+    private DataOutputStream output;
+    private boolean hasSpilledReports;
+
+    public ReportSpillFile(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        spillFile = directory.resolve(SPILL_FILE_NAME);
+        drainingFile = directory.resolve(DRAINING_FILE_NAME);
+        drainedPositionFile = directory.resolve(DRAINED_POSITION_FILE_NAME);
+        // Reports which have been spilled before a restart are loaded back as well
+        hasSpilledReports = Files.exists(spillFile) || Files.exists(drainingFile);
+    }
+
+    public synchronized void append(final ReportedData reportedData, final long arrivalMillis) throws IOException {
+        if (output == null) output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile, CREATE, APPEND)));
+        final byte[] bytes = schema.encode(reportedData);
+        output.writeLong(arrivalMillis);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        output.flush();
+        hasSpilledReports = true;
+    }
+
+    public synchronized boolean hasSpilledReports() {
+        return hasSpilledReports;
+    }
+
+    public void drain(final SpilledReportConsumer consumer) throws IOException {
+        synchronized (this) {
+            closeOutput();
+            // A draining file left behind by an interrupted drain is read first, the current spill file is picked up by the next drain
+            if (!Files.exists(drainingFile) && Files.exists(spillFile)) {
+                // A position left behind by a crash after its draining file has been deleted must not apply to the next one
+                Files.deleteIfExists(drainedPositionFile);
+                Files.move(spillFile, drainingFile, ATOMIC_MOVE);
+            }
+            hasSpilledReports = Files.exists(spillFile);
+        }
+        if (!Files.exists(drainingFile)) return;
+        try (final FileChannel positionChannel = FileChannel.open(drainedPositionFile, CREATE, READ, WRITE);
+             final SeekableByteChannel drainingChannel = Files.newByteChannel(drainingFile)) {
+            final long size = drainingChannel.size();
+            long position = readDrainedPosition(positionChannel);
+            final DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(drainingChannel.position(position))));
+            while (position + RECORD_HEADER_BYTES <= size) {
+                final long arrivalMillis = input.readLong();
+                final int length = input.readInt();
+                // The last record may have been cut off by a crash during its append
+                if (length < 0 || position + RECORD_HEADER_BYTES + length > size) break;
+                final byte[] bytes = new byte[length];
+                input.readFully(bytes);
+                position += RECORD_HEADER_BYTES + length;
+                handOver(consumer, bytes, arrivalMillis);
+                writeDrainedPosition(positionChannel, position);
+            }
+            if (position < size) LOGGER.warn("Ignoring {} bytes of a report cut off at the end of {}", size - position, drainingFile);
+        }
+        Files.delete(drainingFile);
+        Files.delete(drainedPositionFile);
+    }
+
+    private void handOver(final SpilledReportConsumer consumer, final byte[] bytes, final long arrivalMillis) {
+        final ReportedData reportedData;
+        try {
+            reportedData = schema.decode(bytes);
+        } catch (final RuntimeException e) {
+            LOGGER.error("Skipping spilled report which cannot be decoded. Reason: {}", e.getMessage());
+            return;
+        }
+        consumer.accept(reportedData, arrivalMillis);
+    }
+
+    private static long readDrainedPosition(final FileChannel positionChannel) throws IOException {
+        // A position which has not been written completely is ignored, so that the file is drained from its beginning
+        if (positionChannel.size() < Long.BYTES) return 0;
+        final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        while (buffer.hasRemaining()) {
+            positionChannel.read(buffer, buffer.position());
+        }
+        return buffer.getLong(0);
+    }
+
+    private static void writeDrainedPosition(final FileChannel positionChannel, final long position) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, position);
+        while (buffer.hasRemaining()) {
+            positionChannel.write(buffer, buffer.position());
+        }
+    }
+
+    private void closeOutput() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeOutput();
+    }
+
+    @FunctionalInterface
+    public interface SpilledReportConsumer {
+        void accept(final ReportedData reportedData, final long arrivalMillis);
+    }
+}
@@ -1,5 +1,7 @@
 package de.noack.resources;
 
+import de.noack.model.Page;
+import de.noack.service.DashboardFeed;
 import de.noack.service.DashboardService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,11 +10,17 @@ import javax.inject.Inject;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
 
 import static javax.ws.rs.client.Entity.entity;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.MediaType.SERVER_SENT_EVENTS;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static javax.ws.rs.core.Response.ok;
 import static javax.ws.rs.core.Response.status;
@@ -25,11 +33,20 @@ public class DashboardResource {
     @Inject
     private DashboardService dashboardService;
 
+    @Inject
+    private DashboardFeed dashboardFeed;
+
     @GET
     @Produces({APPLICATION_JSON, TEXT_PLAIN})
-    public Response getTransformedReports() {
+    public Response getTransformedReports(@QueryParam("limit") final Integer limit, @QueryParam("next") final String next) {
         try {
+            if (limit != null || next != null) return ok(dashboardService.pageMicroData(next, Page.limitOf(limit))).build();
             return ok(dashboardService.allMicroData()).build();
+        } catch (final IllegalArgumentException e) {
+            LOGGER.error(e.getMessage());
+            return status(BAD_REQUEST)
+                    .entity(entity(e.getMessage(), TEXT_PLAIN))
+                    .build();
         } catch (final RuntimeException e) {
             LOGGER.error(e.getMessage());
             return status(NOT_FOUND)
@@ -51,4 +68,25 @@ public class DashboardResource {
                     .build();
         }
     }
+
+    @GET
+    @Path("aggregates")
+    @Produces({APPLICATION_JSON, TEXT_PLAIN})
+    public Response getAggregates() {
+        try {
+            return ok(dashboardService.aggregates()).build();
+        } catch (final RuntimeException e) {
+            LOGGER.error(e.getMessage());
+            return status(NOT_FOUND)
+                    .entity(entity(e.getMessage(), TEXT_PLAIN))
+                    .build();
+        }
+    }
+
+    @GET
+    @Path("feed")
+    @Produces(SERVER_SENT_EVENTS)
+    public void getFeed(@Context final SseEventSink eventSink, @Context final Sse sse) {
+        dashboardFeed.register(eventSink, sse);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package de.noack.service;
+
+import io.quarkus.runtime.ShutdownEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseBroadcaster;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
+
+/**
+ * This class pushes the {@link MicroDataAggregates} to open dashboards as Server-Sent Events. A dashboard receives a "snapshot" event with all
+ * summaries once it has connected, followed by "delta" events with the current summaries of all groups changed in the meantime. Changes are
+ * collected for a short interval and each event is serialized once and broadcast to all dashboards, so that the cost of the feed does not depend
+ * on the number of open dashboards.
+ *
+ * @author davidnoack
+ */
+@ApplicationScoped
+public class DashboardFeed {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardFeed.class);
+    private static final long PUBLISH_INTERVAL_MILLIS = 500;
+    private static final String SNAPSHOT_EVENT = "snapshot";
+    private static final String DELTA_EVENT = "delta";
+    private static final Jsonb JSONB = JsonbBuilder.create();
+    private final ScheduledExecutorService publishExecutor = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "dashboard-feed"));
+    @Inject
+    MicroDataAggregates microDataAggregates;
+    private Sse sse;
+    private SseBroadcaster broadcaster;
+
+    /**
+     * Sends the current summaries to the given dashboard and registers it for all following changes.
+     */
+    public synchronized void register(final SseEventSink eventSink, final Sse sse) {
+        if (broadcaster == null) {
+            this.sse = sse;
+            broadcaster = sse.newBroadcaster();
+            broadcaster.onError((closedSink, throwable) -> LOGGER.debug("Dashboard disconnected. Reason: {}", throwable.getMessage()));
+            publishExecutor.scheduleWithFixedDelay(this::publishChanges, PUBLISH_INTERVAL_MILLIS, PUBLISH_INTERVAL_MILLIS, MILLISECONDS);
+        }
+        // Changes not yet published are part of the snapshot and published once more, which is harmless as they carry the current summaries
+        eventSink.send(eventOf(SNAPSHOT_EVENT, microDataAggregates.summaries()));
+        broadcaster.register(eventSink);
+    }
+
+    private synchronized void publishChanges() {
+        try {
+            final Map<?, ?> changes = microDataAggregates.drainChanges();
+            if (!changes.isEmpty()) broadcaster.broadcast(eventOf(DELTA_EVENT, changes));
+        } catch (final RuntimeException e) {
+            LOGGER.error("Error during publishing of dashboard changes. Reason: {}", e.getMessage());
+        }
+    }
+
+    private OutboundSseEvent eventOf(final String name, final Object data) {
+        return sse.newEventBuilder()
+                .name(name)
+                .mediaType(APPLICATION_JSON_TYPE)
+                .data(String.class, JSONB.toJson(data))
+                .build();
+    }
+
+    void onStop(@Observes final ShutdownEvent ev) {
+        publishExecutor.shutdownNow();
+        synchronized (this) {
+            if (broadcaster != null) broadcaster.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package de.noack.service;
+
+import de.noack.model.MicroData;
+import lombok.Value;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static java.math.BigDecimal.ZERO;
+
+/**
+ * This class maintains the count and amount sum of micro data grouped by each {@link Dimension}. It is fed with every record of the topic
+ * "microdata-dashboard" by the dashboard client, so that the dashboard is served from memory instead of reading the whole topic per request. Only
+ * the latest record of a message key is counted: a record replacing an earlier one of its key removes the contribution of the earlier one. Groups
+ * changed since the last call of {@link #drainChanges()} are tracked, so that they can be pushed to open dashboards.
+ *
+ * @author davidnoack
+ */
+@ApplicationScoped
+public class MicroDataAggregates {
+    private final Map<String, Contribution> contributions = new HashMap<>();
+    private final Map<Dimension, Map<String, Aggregate>> aggregates = new EnumMap<>(Dimension.class);
+    private final Set<Aggregate> changedAggregates = new HashSet<>();
+
+    public MicroDataAggregates() {
+        for (final Dimension dimension : Dimension.values()) {
+            aggregates.put(dimension, new HashMap<>());
+        }
+    }
+
+    public synchronized void add(final String messageKey, final MicroData microData) {
+        final Contribution previousContribution = contributions.get(messageKey);
+        if (previousContribution != null) remove(previousContribution);
+        final Contribution contribution = new Contribution(microData.getAmount() != null ? microData.getAmount() : ZERO);
+        for (final Dimension dimension : Dimension.values()) {
+            final String group = dimension.of(microData);
+            if (group == null || group.isEmpty()) continue;
+            final Aggregate aggregate = aggregates.get(dimension).computeIfAbsent(group, newGroup -> new Aggregate(dimension, newGroup));
+            aggregate.count++;
+            changedAggregates.add(aggregate);
+            aggregate.amount = aggregate.amount.add(contribution.amount);
+            contribution.aggregates[dimension.ordinal()] = aggregate;
+        }
+        contributions.put(messageKey, contribution);
+    }
+
+    private void remove(final Contribution contribution) {
+        for (final Dimension dimension : Dimension.values()) {
+            final Aggregate aggregate = contribution.aggregates[dimension.ordinal()];
+            if (aggregate == null) continue;
+            aggregate.count--;
+            aggregate.amount = aggregate.amount.subtract(contribution.amount);
+            changedAggregates.add(aggregate);
+            if (aggregate.count == 0) aggregates.get(dimension).remove(aggregate.group);
+        }
+    }
+
+    public synchronized Map<String, Long> countsBy(final Dimension dimension) {
+        final Map<String, Long> counts = new TreeMap<>();
+        aggregates.get(dimension).forEach((group, aggregate) -> counts.put(group, aggregate.count));
+        return counts;
+    }
+
+    public synchronized Map<Dimension, Map<String, Summary>> summaries() {
+        final Map<Dimension, Map<String, Summary>> summaries = new EnumMap<>(Dimension.class);
+        aggregates.forEach((dimension, groups) -> {
+            final Map<String, Summary> groupSummaries = new TreeMap<>();
+            groups.forEach((group, aggregate) -> groupSummaries.put(group, new Summary(aggregate.count, aggregate.amount)));
+            summaries.put(dimension, groupSummaries);
+        });
+        return summaries;
+    }
+
+    /**
+     * Returns the current summaries of all groups changed since the previous call. Groups without any record left are returned with a count of zero.
+     */
+    public synchronized Map<Dimension, Map<String, Summary>> drainChanges() {
+        final Map<Dimension, Map<String, Summary>> changes = new EnumMap<>(Dimension.class);
+        for (final Aggregate changedAggregate : changedAggregates) {
+            // A group might have been removed and added again, so that only the aggregate still in place is current
+            final Aggregate aggregate = aggregates.get(changedAggregate.dimension).get(changedAggregate.group);
+            changes.computeIfAbsent(changedAggregate.dimension, dimension -> new TreeMap<>())
+                    .put(changedAggregate.group, aggregate != null ? new Summary(aggregate.count, aggregate.amount) : new Summary(0, ZERO));
+        }
+        changedAggregates.clear();
+        return changes;
+    }
+
+    /**
+     * This enum represents the attributes of micro data by which the aggregates are grouped. Micro data without a value for an attribute is not
+     * counted within the respective dimension.
+     */
+    public enum Dimension {
+        INSTRUMENT_CLASS {
+            @Override
+            String of(final MicroData microData) {
+                return microData.getSecurity().getInstrumentClass();
+            }
+        },
+        HOLDER_SECTOR {
+            @Override
+            String of(final MicroData microData) {
+                return microData.getMicroDataKey().getHolderSector();
+            }
+        },
+        HOLDER_AREA {
+            @Override
+            String of(final MicroData microData) {
+                return microData.getMicroDataKey().getHolderArea();
+            }
+        },
+        COMPILING_ORG {
+            @Override
+            String of(final MicroData microData) {
+                return microData.getMicroDataKey().getCompilingOrg();
+            }
+        };
+
+        abstract String of(final MicroData microData);
+    }
+
+    @Value
+    public static class Summary {
+        long count;
+        BigDecimal amount;
+    }
+
+    /**
+     * This class represents the part of a record within the aggregates. It references the aggregates instead of holding the group values, so that
+     * it neither keeps a copy of them nor needs any lookup on removal.
+     */
+    private static class Contribution {
+        private final BigDecimal amount;
+        private final Aggregate[] aggregates = new Aggregate[Dimension.values().length];
+
+        private Contribution(final BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+
+    private static class Aggregate {
+        private final Dimension dimension;
+        private final String group;
+        private long count;
+        private BigDecimal amount = ZERO;
+
+        private Aggregate(final Dimension dimension, final String group) {
+            this.dimension = dimension;
+            this.group = group;
+        }
+    }
+}
@@ -14,55 +14,84 @@ const svg = d3.select("#instrumentClasses")
     .append("g")
     .attr("transform", "translate(" + width / 2 + "," + height / 2 + ")");
 
-// Create required data
-const xhReq = new XMLHttpRequest();
-xhReq.open("GET", "/dashboard/instrumentClassesWithCount", false);
-xhReq.send(null);
-const data = JSON.parse(xhReq.responseText);
+// Instrument classes with their count, kept up to date by the events of the dashboard feed
+const data = {};
 
 // set the color scale
 const color = d3.scaleOrdinal()
-    .domain(data)
     .range(d3.schemeSet2);
 
 // Compute the position of each group on the pie:
 const pie = d3.pie()
     .value(function (d) {
         return d.value;
+    })
+    .sort(function (a, b) {
+        return d3.ascending(a.key, b.key);
     });
-const data_ready = pie(d3.entries(data));
-// Now I know that group A goes from 0 degrees to x degrees and so on.
 
 // shape helper to build arcs:
 const arcGenerator = d3.arc()
     .innerRadius(0)
     .outerRadius(radius);
 
-// Build the pie chart: Basically, each part of the pie is a path that we build using the arc function.
-svg
-    .selectAll('mySlices')
-    .data(data_ready)
-    .enter()
-    .append('path')
-    .attr('d', arcGenerator)
-    .attr('fill', function (d) {
-        return (color(d.data.key))
-    })
-    .attr("stroke", "black")
-    .style("stroke-width", "2px")
-    .style("opacity", 0.7)
+function draw() {
+    const data_ready = pie(d3.entries(data));
+    // Now I know that group A goes from 0 degrees to x degrees and so on.
 
-// Now add the annotation. Use the centroid method to get the best coordinates
-svg
-    .selectAll('mySlices')
-    .data(data_ready)
-    .enter()
-    .append('text')
-    .text(function (d) {
-        return d.data.key + " Count: " + d.data.value
-    })
-    .attr("transform", function (d) {
-        return "translate(" + arcGenerator.centroid(d) + ")";
-    })
-    .style("text-anchor", "middle")
-    .style("font-size", 17)
+    // Build the pie chart: Basically, each part of the pie is a path that we build using the arc function.
+    const slices = svg.selectAll('path').data(data_ready, function (d) {
+        return d.data.key;
+    });
+    slices.exit().remove();
+    slices.enter()
+        .append('path')
+        .attr('fill', function (d) {
+            return (color(d.data.key))
+        })
+        .attr("stroke", "black")
+        .style("stroke-width", "2px")
+        .style("opacity", 0.7)
+        .merge(slices)
+        .attr('d', arcGenerator)
+
+    // Now add the annotation. Use the centroid method to get the best coordinates
+    const labels = svg.selectAll('text').data(data_ready, function (d) {
+        return d.data.key;
+    });
+    labels.exit().remove();
+    labels.enter()
+        .append('text')
+        .style("text-anchor", "middle")
+        .style("font-size", 17)
+        .merge(labels)
+        .text(function (d) {
+            return d.data.key + " Count: " + d.data.value
+        })
+        .attr("transform", function (d) {
+            return "translate(" + arcGenerator.centroid(d) + ")";
+        })
+}
+
+// Apply the summaries of changed instrument classes, a class without any count left is removed
+function apply(summaries) {
+    const instrumentClasses = summaries["INSTRUMENT_CLASS"] || {};
+    Object.keys(instrumentClasses).forEach(function (instrumentClass) {
+        const count = instrumentClasses[instrumentClass].count;
+        if (count > 0) data[instrumentClass] = count;
+        else delete data[instrumentClass];
+    });
+    draw();
+}
+
+// The server pushes a snapshot once connected and deltas afterwards, the browser reconnects on its own
+const feed = new EventSource("/dashboard/feed");
+feed.addEventListener("snapshot", function (event) {
+    Object.keys(data).forEach(function (instrumentClass) {
+        delete data[instrumentClass];
+    });
+    apply(JSON.parse(event.data));
+});
+feed.addEventListener("delta", function (event) {
+    apply(JSON.parse(event.data));
+});
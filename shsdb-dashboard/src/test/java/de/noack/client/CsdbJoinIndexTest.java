@@ -0,0 +1,95 @@
+package de.noack.client;
+
+import org.junit.jupiter.api.Test;
+
+import static de.noack.client.CsdbJoinIndex.NO_ROW;
+import static de.noack.client.CsdbJoinIndex.NO_VERSION;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author davidnoack
+ */
+public class CsdbJoinIndexTest {
+    private static final String ISIN = "DE0001102580";
+    private static final String UNPACKABLE_ISIN = "DE000110258Ä";
+
+    @Test
+    public void findsNothingInAnEmptyIndex() {
+        final CsdbJoinIndex index = new CsdbJoinIndex();
+        assertEquals(NO_ROW, index.get(ISIN, 201906));
+        assertEquals(NO_VERSION, index.versionOf(ISIN, 201906));
+        assertEquals(NO_ROW, index.get(UNPACKABLE_ISIN, 201906));
+        assertEquals(NO_VERSION, index.versionOf("SHORT", 201906));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void keepsTheLatestVersionOfASecurity() {
+        assertLatestVersionKept(ISIN);
+    }
+
+    @Test
+    public void keepsTheLatestVersionOfASecurityWhichCannotBePacked() {
+        assertLatestVersionKept(UNPACKABLE_ISIN);
+        assertLatestVersionKept("XS123");
+    }
+
+    @Test
+    public void separatesPeriodsAndSimilarIsins() {
+        final CsdbJoinIndex index = new CsdbJoinIndex();
+        index.put(ISIN, 201906, 1, 10);
+        index.put(ISIN, 201909, 1, 11);
+        // Differs in the last character only, which is packed into the lower long
+        index.put("DE0001102581", 201906, 1, 12);
+        // Differs in the first character only, which is packed into the upper long
+        index.put("FE0001102580", 201906, 1, 13);
+        assertEquals(10, index.get(ISIN, 201906));
+        assertEquals(11, index.get(ISIN, 201909));
+        assertEquals(12, index.get("DE0001102581", 201906));
+        assertEquals(13, index.get("FE0001102580", 201906));
+        assertEquals(NO_ROW, index.get(ISIN, 201912));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void findsAllSecuritiesAfterResizing() {
+        final CsdbJoinIndex index = new CsdbJoinIndex();
+        final int securities = 100_000;
+        for (int i = 0; i < securities; i++) {
+            index.put(isinOf(i), 201906, i % 7, i);
+        }
+        // A second version of every other security must replace the row of the first one after all resizes
+        for (int i = 0; i < securities; i += 2) {
+            index.put(isinOf(i), 201906, i % 7 + 1, securities + i);
+        }
+        assertEquals(securities, index.size());
+        for (int i = 0; i < securities; i++) {
+            final boolean isReplaced = i % 2 == 0;
+            assertEquals(isReplaced ? securities + i : i, index.get(isinOf(i), 201906), isinOf(i));
+            assertEquals(isReplaced ? i % 7 + 1 : i % 7, index.versionOf(isinOf(i), 201906), isinOf(i));
+        }
+    }
+
+    private static void assertLatestVersionKept(final String isin) {
+        final CsdbJoinIndex index = new CsdbJoinIndex();
+        index.put(isin, 201906, 2, 1);
+        assertEquals(1, index.get(isin, 201906));
+        assertEquals(2, index.versionOf(isin, 201906));
+        // A lower version arriving late is ignored
+        index.put(isin, 201906, 1, 2);
+        assertEquals(1, index.get(isin, 201906));
+        assertEquals(2, index.versionOf(isin, 201906));
+        // The same version replaces the row, e.g. for a re-delivery
+        index.put(isin, 201906, 2, 3);
+        assertEquals(3, index.get(isin, 201906));
+        // A higher version replaces version and row
+        index.put(isin, 201906, 5, 4);
+        assertEquals(4, index.get(isin, 201906));
+        assertEquals(5, index.versionOf(isin, 201906));
+        assertEquals(1, index.size());
+    }
+
+    private static String isinOf(final int i) {
+        return String.format("XS%010d", i);
+    }
+}
@@ -0,0 +1,303 @@
+package de.noack.client;
+
+import de.noack.commitlog.*;
+import de.noack.model.Page;
+import de.noack.model.ReportQuery;
+import de.noack.model.ReportedData;
+import de.noack.model.ReportedDataKey;
+import de.noack.model.ReportingSchema;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import org.apache.pulsar.client.api.Schema;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static de.noack.client.ReportClient.isHeaderValid;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.UUID.randomUUID;
+
+/**
+ * This class represents the implementation of {@link ReportClient} on top of the commit log chosen in the application.properties file. Reports
+ * are uploaded as line-aligned chunks to the {@link FileTopic} "reports-vanilla", so that neither the service nor the broker has to hold a whole
+ * file. They are consumed by the shared subscription "reports-vanilla-subscription" and transformed to records of the compacted topic
+ * "reports-transformed", which are ordered by their ISIN. Rows which cannot be transformed are forwarded to the topic "reports-rejected" instead
+ * of dropping them. A batch of reports is committed once all of its transformed and rejected records have been persisted. Queries and lookups of
+ * transformed records only read the records selected by a {@link ReportedDataIndex}, which is maintained by a reader following the transformed
+ * topic and updated with every persisted record.
+ *
+ * @author davidnoack
+ */
+@ApplicationScoped
+public class ReportLogClient implements ReportClient {
+    private static final int MAX_POLLED_FILES = 16;
+    private static final int MAX_IN_FLIGHT_RECORDS = 10000;
+    private static final long FOLLOW_TIMEOUT_MILLIS = 500;
+    private static final String LINE_NUMBER_PROPERTY = "lineNumber";
+    private static final Jsonb JSONB = JsonbBuilder.create();
+    private final ReportedDataIndex<Position> transformedIndex = new ReportedDataIndex<>();
+    @Inject
+    CommitLogProvider commitLogProvider;
+    @Inject
+    @ConfigProperty(name = "wireformat")
+    WireFormat wireFormat;
+    private FileTopic vanillaTopic;
+    private Topic<ReportedData> transformedTopic;
+    private Topic<byte[]> rejectedTopic;
+    private ConsumerLoop<byte[]> transformLoop;
+    private Thread indexThread;
+    private volatile boolean isApplicationRunning;
+
+    void onStart(@Observes final StartupEvent ev) {
+        isApplicationRunning = true;
+        try {
+            final CommitLogClient client = commitLogProvider.client();
+            vanillaTopic = new FileTopic(client.openTopic(VANILLA_TOPIC_NAME, TopicType.FILES, Schema.BYTES));
+            transformedTopic = client.openTopic(TRANSFORMED_TOPIC_NAME, TopicType.COMPACTED_RECORDS, wireFormat.schemaOf(ReportedData.class));
+            rejectedTopic = client.openTopic(REJECTED_TOPIC_NAME, TopicType.RECORDS, Schema.BYTES);
+            final LogReader<ReportedData> transformedReader = transformedTopic.follow(null);
+            indexThread = new Thread(() -> followTransformedReports(transformedReader), "reports-transformed-index");
+            indexThread.start();
+            transformLoop = new ConsumerLoop<>(VANILLA_SUBSCRIPTION_NAME,
+                    vanillaTopic.subscribe(VANILLA_SUBSCRIPTION_NAME, SubscriptionOptions.shared()), MAX_POLLED_FILES, this::transformReports);
+            produceTransformedReport();
+        } catch (final IOException e) {
+            LOGGER.error("Error occurred during startup! Reason: {}", e.getMessage());
+        }
+    }
+
+    void onStop(@Observes final ShutdownEvent ev) {
+        if (!isApplicationRunning) return;
+        isApplicationRunning = false;
+        if (transformLoop != null) transformLoop.stop();
+        try {
+            if (indexThread != null) indexThread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (vanillaTopic != null) vanillaTopic.close();
+            if (transformedTopic != null) transformedTopic.close();
+            if (rejectedTopic != null) rejectedTopic.close();
+        } catch (final IOException e) {
+            LOGGER.error("Error occurred during close! Reason: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Adds every transformed record to the index, including those which have been produced by other instances of the service.
+     */
+    private void followTransformedReports(final LogReader<ReportedData> reader) {
+        try (final LogReader<ReportedData> transformedReader = reader) {
+            while (isApplicationRunning) {
+                final LogRecord<ReportedData> record = transformedReader.next(FOLLOW_TIMEOUT_MILLIS);
+                if (record == null) continue;
+                try {
+                    transformedIndex.put(record.getKey(), record.getValue().getReportedDataKey(), record.getPosition());
+                } catch (final RuntimeException e) {
+                    LOGGER.error("Transformed report {} cannot be indexed. Reason: {}", record.getKey(), e.getMessage());
+                }
+            }
+        } catch (final IOException e) {
+            LOGGER.error("Error during reading from topic {} occurred. Reason: {}", TRANSFORMED_TOPIC_NAME, e.getMessage());
+        }
+    }
+
+    @Override
+    public String produceVanillaReport(final InputStream report) throws IOException {
+        final String messageKey = String.valueOf(randomUUID());
+        vanillaTopic.produce(messageKey, report);
+        return messageKey;
+    }
+
+    @Override
+    public InputStream findVanillaReport(final String messageKey) {
+        try {
+            final InputStream report = vanillaTopic.find(messageKey);
+            if (report != null) return report;
+        } catch (final IOException e) {
+            LOGGER.error("Error during reading from topic {} occurred. Reason: {}", VANILLA_TOPIC_NAME, e.getMessage());
+        }
+        throw new RuntimeException("Message with id " + messageKey + " not found!");
+    }
+
+    @Override
+    public void allVanillaReports(final OutputStream outputStream) {
+        try {
+            vanillaTopic.forEachFile((messageKey, report) -> copy(report, outputStream));
+        } catch (final IOException e) {
+            LOGGER.error("Error during reading from topic {} occurred. Reason: {}", VANILLA_TOPIC_NAME, e.getMessage());
+        }
+    }
+
+    private static void copy(final InputStream inputStream, final OutputStream outputStream) throws IOException {
+        final byte[] buffer = new byte[8192];
+        int readBytes;
+        while ((readBytes = inputStream.read(buffer)) >= 0) {
+            outputStream.write(buffer, 0, readBytes);
+        }
+    }
+
+    @Override
+    public void produceTransformedReport() {
+        transformLoop.start();
+    }
+
+    private void transformReports(final List<LogRecord<byte[]>> records) throws IOException {
+        final PublishWindow publishWindow = new PublishWindow(MAX_IN_FLIGHT_RECORDS);
+        final long[] transformedAndRejectedRows = new long[2];
+        for (final LogRecord<byte[]> record : records) {
+            // Chunks are transformed with the trailer of their file, which is published once all of them have been persisted
+            if (FileTopic.isChunk(record)) continue;
+            // A report which could not be read fails the batch, which is rewound and consumed again
+            transformReport(record, publishWindow, transformedAndRejectedRows);
+        }
+        // The batch is only committed once all transformed and rejected records of the batch have been persisted
+        publishWindow.awaitCompletion(transformedTopic, rejectedTopic);
+        LOGGER.info("Published {} records to the topic {} and rejected {} rows to the topic {}", transformedAndRejectedRows[0],
+                TRANSFORMED_TOPIC_NAME, transformedAndRejectedRows[1], REJECTED_TOPIC_NAME);
+    }
+
+    private void transformReport(final LogRecord<byte[]> record, final PublishWindow publishWindow, final long[] transformedAndRejectedRows)
+            throws IOException {
+        final String vanillaMessageKey = record.getKey();
+        try (final BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(vanillaTopic.fileOf(record)))) {
+            final String header = bufferedReader.readLine();
+            if (header == null || !isHeaderValid(header)) {
+                LOGGER.error("Header of message with key {} is invalid. Skipping transformation.", vanillaMessageKey);
+                return;
+            }
+            // Compile the header once so that rows are mapped without any lookups
+            final ReportMappingPlan mappingPlan;
+            try {
+                mappingPlan = ReportMappingPlan.compile(header);
+            } catch (final IllegalArgumentException e) {
+                LOGGER.error("Header of message with key {} is invalid. Reason: {}", vanillaMessageKey, e.getMessage());
+                return;
+            }
+            final CsvTokenizer tokenizer = new CsvTokenizer(CSV_DELIMITER_CHAR);
+            long lineNumber = 1;
+            String line;
+            while (!publishWindow.hasFailed() && (line = bufferedReader.readLine()) != null) {
+                lineNumber++;
+                final ReportedData reportedData = mapRow(mappingPlan, tokenizer.reset(line), vanillaMessageKey, lineNumber);
+                if (reportedData != null) {
+                    final ReportedDataKey reportedDataKey = reportedData.getReportedDataKey();
+                    publishWindow.publish(transformedTopic, reportedDataKey.toString(), reportedDataKey.getIsin(), reportedData,
+                            Collections.emptyMap(), position -> transformedIndex.put(reportedDataKey.toString(), reportedDataKey, position));
+                    transformedAndRejectedRows[0]++;
+                } else {
+                    publishWindow.publish(rejectedTopic, vanillaMessageKey, null, line.getBytes(UTF_8),
+                            Collections.singletonMap(LINE_NUMBER_PROPERTY, String.valueOf(lineNumber)),
+                            position -> LOGGER.debug("Rejected row at position {}", position));
+                    transformedAndRejectedRows[1]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the reported data of the row or null if the row has not as many fields as the {@link ReportingSchema} or cannot be mapped.
+     */
+    private static ReportedData mapRow(final ReportMappingPlan mappingPlan, final CsvTokenizer tokenizer, final String vanillaMessageKey,
+                                       final long lineNumber) {
+        if (tokenizer.fieldCount() != ReportingSchema.values().length) {
+            LOGGER.warn("Row {} of message with key {} has {} fields instead of {}", lineNumber, vanillaMessageKey, tokenizer.fieldCount(),
+                    ReportingSchema.values().length);
+            return null;
+        }
+        try {
+            return mappingPlan.map(tokenizer);
+        } catch (final RuntimeException e) {
+            LOGGER.warn("Row {} of message with key {} cannot be mapped. Reason: {}", lineNumber, vanillaMessageKey, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void allTransformedReports(final OutputStream outputStream) {
+        try {
+            // Write each record as soon as it has been read, so that the response does not need to be held in memory as a whole
+            outputStream.write('[');
+            final boolean[] isFirstRecord = {true};
+            transformedTopic.forEach(record -> {
+                if (!isFirstRecord[0]) outputStream.write(',');
+                outputStream.write(JSONB.toJson(record.getValue()).getBytes(UTF_8));
+                isFirstRecord[0] = false;
+                return true;
+            });
+            outputStream.write(']');
+        } catch (final IOException e) {
+            LOGGER.error("Error during reading from topic {} occurred. Reason: {}", TRANSFORMED_TOPIC_NAME, e.getMessage());
+        }
+    }
+
+    @Override
+    public void queryTransformedReports(final ReportQuery query, final OutputStream outputStream) {
+        try {
+            // Only the records selected by the index are read from the topic
+            outputStream.write('[');
+            boolean isFirstRecord = true;
+            for (final Position position : transformedIndex.find(query)) {
+                final LogRecord<ReportedData> record = transformedTopic.read(position);
+                if (record == null) continue;
+                if (!isFirstRecord) outputStream.write(',');
+                outputStream.write(JSONB.toJson(record.getValue()).getBytes(UTF_8));
+                isFirstRecord = false;
+            }
+            outputStream.write(']');
+        } catch (final IOException e) {
+            LOGGER.error("Error during reading from topic {} occurred. Reason: {}", TRANSFORMED_TOPIC_NAME, e.getMessage());
+        }
+    }
+
+    @Override
+    public Page<ReportedData> pageTransformedReports(final String next, final int limit) {
+        final List<ReportedData> records = new ArrayList<>(limit);
+        final Position[] lastPosition = {null};
+        final Position position = next != null ? positionOf(next) : null;
+        try {
+            transformedTopic.forEachAfter(position, record -> {
+                records.add(record.getValue());
+                lastPosition[0] = record.getPosition();
+                return records.size() < limit;
+            });
+        } catch (final IOException e) {
+            LOGGER.error("Error during reading from topic {} occurred. Reason: {}", TRANSFORMED_TOPIC_NAME, e.getMessage());
+            throw new RuntimeException("Page of topic " + TRANSFORMED_TOPIC_NAME + " could not be read!");
+        }
+        // Only a full page is continued, so that the end of the topic has been reached with the first page which is not full
+        return new Page<>(records, records.size() == limit ? Page.tokenOf(lastPosition[0].toByteArray()) : null);
+    }
+
+    private Position positionOf(final String next) {
+        try {
+            return transformedTopic.positionOf(Page.positionOf(next));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Token " + next + " is invalid!");
+        }
+    }
+
+    @Override
+    public ReportedData findTransformedReport(final String messageKey) {
+        // Only the latest record of the key is read, at the position kept by the index
+        final Position position = transformedIndex.positionOf(messageKey);
+        if (position != null) {
+            try {
+                final LogRecord<ReportedData> record = transformedTopic.read(position);
+                if (record != null && messageKey.equals(record.getKey())) return record.getValue();
+            } catch (final IOException e) {
+                LOGGER.error("Error during reading from topic {} occurred. Reason: {}", TRANSFORMED_TOPIC_NAME, e.getMessage());
+            }
+        }
+        throw new RuntimeException("Message with id " + messageKey + " not found!");
+    }
+}
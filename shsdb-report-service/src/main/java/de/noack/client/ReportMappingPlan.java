@@ -0,0 +1,132 @@
+package de.noack.client;
+
+import de.noack.model.ReportedData;
+import de.noack.model.ReportedDataKey;
+import de.noack.model.ReportingSchema;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static de.noack.client.ReportClient.CSV_DELIMITER;
+import static de.noack.model.ReportingSchema.*;
+
+/**
+ * This class represents the mapping of one report file header onto {@link ReportedData} attributes. The header is compiled once per file into
+ * arrays of column indices and setter handlers, so that transforming a row neither looks up a map nor checks for missing columns. Mandatory
+ * attributes are still checked by the setters of {@link ReportedData} and {@link ReportedDataKey}. A compiled plan is immutable and can be shared
+ * between threads.
+ *
+ * @author davidnoack
+ */
+public final class ReportMappingPlan {
+    private static final String YES = "Y";
+    private static final String NO = "N";
+    private static final int CODE_TABLE_CAPACITY = 1024;
+    private static final Map<ReportingSchema, ColumnMapper> MAPPERS = new EnumMap<>(ReportingSchema.class);
+
+    static {
+        MAPPERS.put(COMPILING_ORG, mandatoryCode((report, code) -> report.getReportedDataKey().setCompilingOrg(code)));
+        MAPPERS.put(PERIOD, (report, tokenizer, column) -> report.getReportedDataKey().setPeriod(parsePeriod(tokenizer.getString(column))));
+        MAPPERS.put(FREQ, mandatoryCode((report, code) -> report.getReportedDataKey().setFrequency(code)));
+        MAPPERS.put(ACCR_INTR_MV, (report, tokenizer, column) -> report.setAccruedInterestForMarketValues(yesOrNo(tokenizer, column)));
+        MAPPERS.put(ACCR_INTR_TX, (report, tokenizer, column) -> report.setAccruedInterestForTransactions(yesOrNo(tokenizer, column)));
+        MAPPERS.put(EARLY_RED, (report, tokenizer, column) -> report.setEarlyRedemptions(yesOrNo(tokenizer, column)));
+        MAPPERS.put(ISIN, (report, tokenizer, column) -> report.getReportedDataKey().setIsin(mandatoryString(tokenizer, column)));
+        MAPPERS.put(NOM_CURR, code(ReportedData::setNominalCurrency));
+        MAPPERS.put(REPORTING_BASIS, code(ReportedData::setReportingBasis));
+        MAPPERS.put(HOLDER_SECTOR, mandatoryCode((report, code) -> report.getReportedDataKey().setHolderSector(code)));
+        MAPPERS.put(SOURCE, mandatoryCode((report, code) -> report.getReportedDataKey().setSource(code)));
+        MAPPERS.put(HOLDER_AREA, mandatoryCode((report, code) -> report.getReportedDataKey().setHolderArea(code)));
+        MAPPERS.put(FUNCTIONAL_CATEGORY, mandatoryCode((report, code) -> report.getReportedDataKey().setFunctionalCategory(code)));
+        MAPPERS.put(AMOUNT_TYPE, mandatoryCode((report, code) -> report.getReportedDataKey().setAmountType(code)));
+        MAPPERS.put(VALUATION, mandatoryCode((report, code) -> report.getReportedDataKey().setValuation(code)));
+        MAPPERS.put(OBS_VALUE, (report, tokenizer, column) -> report.setAmount(tokenizer.getBigDecimal(column)));
+        MAPPERS.put(UNIT_MEASURE, mandatoryCode(ReportedData::setUnitMeasure));
+        MAPPERS.put(CONF_STATUS, code(ReportedData::setConfidentialityStatus));
+        MAPPERS.put(CONF_AMOUNT, (report, tokenizer, column) -> report.setConfidentialityAmount(tokenizer.getBigDecimal(column)));
+    }
+
+    private final int columnCount;
+    private final int[] columns;
+    private final ColumnMapper[] mappers;
+
+    private ReportMappingPlan(final int columnCount, final int[] columns, final ColumnMapper[] mappers) {
+        this.columnCount = columnCount;
+        this.columns = columns;
+        this.mappers = mappers;
+    }
+
+    public static ReportMappingPlan compile(final String header) {
+        final String[] csvAttributes = header.split(CSV_DELIMITER);
+        final Map<ReportingSchema, Integer> columnOrder = new EnumMap<>(ReportingSchema.class);
+        // Find out order of column headers
+        for (int i = 0; i < csvAttributes.length; i++) {
+            columnOrder.put(ReportingSchema.valueOf(csvAttributes[i]), i);
+        }
+        final List<Integer> columns = new ArrayList<>();
+        final List<ColumnMapper> mappers = new ArrayList<>();
+        for (final ReportingSchema attribute : ReportingSchema.values()) {
+            final Integer column = columnOrder.get(attribute);
+            if (column == null) throw new IllegalArgumentException("Header does not contain attribute " + attribute);
+            columns.add(column);
+            mappers.add(MAPPERS.get(attribute));
+        }
+        return new ReportMappingPlan(csvAttributes.length, columns.stream().mapToInt(Integer::intValue).toArray(),
+                mappers.toArray(new ColumnMapper[0]));
+    }
+
+    public int columnCount() {
+        return columnCount;
+    }
+
+    public ReportedData map(final CsvTokenizer tokenizer) {
+        final ReportedData reportedData = new ReportedData();
+        reportedData.setReportedDataKey(new ReportedDataKey());
+        for (int i = 0; i < columns.length; i++) {
+            mappers[i].map(reportedData, tokenizer, columns[i]);
+        }
+        return reportedData;
+    }
+
+    private static String mandatoryString(final CsvTokenizer tokenizer, final int column) {
+        return tokenizer.isEmpty(column) ? "" : tokenizer.getString(column);
+    }
+
+    /**
+     * Returns a mapper for a column with few distinct values, whose values are taken from an intern table of that column.
+     */
+    private static ColumnMapper code(final BiConsumer<ReportedData, String> setter) {
+        final StringInternTable internTable = new StringInternTable(CODE_TABLE_CAPACITY);
+        return (report, tokenizer, column) -> setter.accept(report, tokenizer.getString(column, internTable));
+    }
+
+    private static ColumnMapper mandatoryCode(final BiConsumer<ReportedData, String> setter) {
+        final StringInternTable internTable = new StringInternTable(CODE_TABLE_CAPACITY);
+        return (report, tokenizer, column) -> setter.accept(report, tokenizer.isEmpty(column) ? "" : tokenizer.getString(column, internTable));
+    }
+
+    private static Boolean yesOrNo(final CsvTokenizer tokenizer, final int column) {
+        if (tokenizer.equalsIgnoreCase(column, YES)) return Boolean.TRUE;
+        return tokenizer.equalsIgnoreCase(column, NO) ? Boolean.FALSE : null;
+    }
+
+    private static Integer parsePeriod(final String periodString) {
+        final String periodIntegerString;
+        if (periodString.contains("Q")) {
+            final int quarter = Integer.parseInt(periodString.substring(6));
+            if (quarter == 4) periodIntegerString = periodString.substring(0, 4) + "12";
+            else periodIntegerString = periodString.substring(0, 4) + "0" + quarter * 3;
+        } else {
+            periodIntegerString = periodString.substring(0, 4) + periodString.substring(6);
+        }
+        return Integer.parseInt(periodIntegerString);
+    }
+
+    @FunctionalInterface
+    private interface ColumnMapper {
+        void map(final ReportedData reportedData, final CsvTokenizer tokenizer, final int column);
+    }
+}
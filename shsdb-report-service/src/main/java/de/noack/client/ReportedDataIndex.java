@@ -0,0 +1,114 @@
+package de.noack.client;
+
+import de.noack.model.ReportQuery;
+import de.noack.model.ReportedDataKey;
+
+import java.util.*;
+
+/**
+ * This class represents a secondary index over the {@link ReportedDataKey}s of the topic "reports-transformed". It keeps the position of the
+ * latest record of every message key within the topic, e.g. its message ID or offset, and the message keys per period, ISIN, compiling
+ * organisation and holder sector. A {@link ReportQuery} is answered from the smallest of the sets selected by its criteria, so that only the
+ * records matching all criteria have to be read from the topic. The position of a message key is only replaced by a later one. Instances are
+ * safe for use by multiple threads.
+ *
+ * @author davidnoack
+ */
+public class ReportedDataIndex<P extends Comparable<? super P>> {
+    private final Map<String, Entry<P>> entries = new HashMap<>();
+    private final NavigableMap<Integer, Set<String>> messageKeysByPeriod = new TreeMap<>();
+    private final NavigableMap<String, Set<String>> messageKeysByIsin = new TreeMap<>();
+    private final Map<String, Set<String>> messageKeysByCompilingOrg = new HashMap<>();
+    private final Map<String, Set<String>> messageKeysByHolderSector = new HashMap<>();
+
+    public synchronized void put(final String messageKey, final ReportedDataKey reportedDataKey, final P position) {
+        final Entry<P> previousEntry = entries.get(messageKey);
+        // A record which has been read from the topic after its successor has been produced must not replace it
+        if (previousEntry != null && previousEntry.position.compareTo(position) >= 0) return;
+        entries.put(messageKey, new Entry<>(reportedDataKey, position));
+        if (previousEntry != null) {
+            // The message key is derived from the reported data key, so that only the position of a replaced record changes
+            if (previousEntry.reportedDataKey.equals(reportedDataKey)) return;
+            removeFrom(messageKeysByPeriod, previousEntry.reportedDataKey.getPeriod(), messageKey);
+            removeFrom(messageKeysByIsin, previousEntry.reportedDataKey.getIsin(), messageKey);
+            removeFrom(messageKeysByCompilingOrg, previousEntry.reportedDataKey.getCompilingOrg(), messageKey);
+            removeFrom(messageKeysByHolderSector, previousEntry.reportedDataKey.getHolderSector(), messageKey);
+        }
+        messageKeysByPeriod.computeIfAbsent(reportedDataKey.getPeriod(), period -> new HashSet<>()).add(messageKey);
+        messageKeysByIsin.computeIfAbsent(reportedDataKey.getIsin(), isin -> new HashSet<>()).add(messageKey);
+        messageKeysByCompilingOrg.computeIfAbsent(reportedDataKey.getCompilingOrg(), compilingOrg -> new HashSet<>()).add(messageKey);
+        messageKeysByHolderSector.computeIfAbsent(reportedDataKey.getHolderSector(), holderSector -> new HashSet<>()).add(messageKey);
+    }
+
+    /**
+     * Returns the position of the latest record with the given message key or null if there is none.
+     */
+    public synchronized P positionOf(final String messageKey) {
+        final Entry<P> entry = entries.get(messageKey);
+        return entry != null ? entry.position : null;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the positions of all records matching the query, ordered by their message key.
+     */
+    public synchronized List<P> find(final ReportQuery query) {
+        Collection<Set<String>> candidates = Collections.singletonList(entries.keySet());
+        if (query.getPeriodFrom() != null || query.getPeriodTo() != null) {
+            final int periodFrom = query.getPeriodFrom() != null ? query.getPeriodFrom() : Integer.MIN_VALUE;
+            final int periodTo = query.getPeriodTo() != null ? query.getPeriodTo() : Integer.MAX_VALUE;
+            candidates = smallerOf(candidates, periodFrom <= periodTo
+                    ? messageKeysByPeriod.subMap(periodFrom, true, periodTo, true).values()
+                    : Collections.emptySet());
+        }
+        if (query.getIsinPrefix() != null) {
+            final String isinPrefix = query.getIsinPrefix();
+            candidates = smallerOf(candidates, messageKeysByIsin.subMap(isinPrefix, true, isinPrefix + Character.MAX_VALUE, false).values());
+        }
+        if (query.getCompilingOrg() != null) candidates = smallerOf(candidates, candidatesOf(messageKeysByCompilingOrg.get(query.getCompilingOrg())));
+        if (query.getHolderSector() != null) candidates = smallerOf(candidates, candidatesOf(messageKeysByHolderSector.get(query.getHolderSector())));
+        // The candidates of one criterion are disjoint, the remaining criteria are checked against the key of each candidate
+        final SortedMap<String, P> matches = new TreeMap<>();
+        for (final Set<String> messageKeys : candidates) {
+            for (final String messageKey : messageKeys) {
+                final Entry<P> entry = entries.get(messageKey);
+                if (query.matches(entry.reportedDataKey)) matches.put(messageKey, entry.position);
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    private static Collection<Set<String>> smallerOf(final Collection<Set<String>> candidates, final Collection<Set<String>> otherCandidates) {
+        return sizeOf(otherCandidates) < sizeOf(candidates) ? otherCandidates : candidates;
+    }
+
+    private static long sizeOf(final Collection<Set<String>> candidates) {
+        long size = 0;
+        for (final Set<String> messageKeys : candidates) {
+            size += messageKeys.size();
+        }
+        return size;
+    }
+
+    private static Collection<Set<String>> candidatesOf(final Set<String> messageKeys) {
+        return messageKeys != null ? Collections.singletonList(messageKeys) : Collections.emptySet();
+    }
+
+    private static <K> void removeFrom(final Map<K, Set<String>> messageKeysByValue, final K value, final String messageKey) {
+        final Set<String> messageKeys = messageKeysByValue.get(value);
+        if (messageKeys != null && messageKeys.remove(messageKey) && messageKeys.isEmpty()) messageKeysByValue.remove(value);
+    }
+
+    private static class Entry<P> {
+        private final ReportedDataKey reportedDataKey;
+        private final P position;
+
+        private Entry(final ReportedDataKey reportedDataKey, final P position) {
+            this.reportedDataKey = reportedDataKey;
+            this.position = position;
+        }
+    }
+}
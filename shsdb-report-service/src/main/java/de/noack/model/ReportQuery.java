@@ -0,0 +1,30 @@
+package de.noack.model;
+
+import lombok.Value;
+
+/**
+ * This class represents the criteria of a query over transformed reports. Every criterion is optional, a record matches if it fulfills all given
+ * criteria. The period range includes both of its bounds.
+ *
+ * @author davidnoack
+ */
+@Value
+public class ReportQuery {
+    Integer periodFrom;
+    Integer periodTo;
+    String compilingOrg;
+    String isinPrefix;
+    String holderSector;
+
+    public boolean isEmpty() {
+        return periodFrom == null && periodTo == null && compilingOrg == null && isinPrefix == null && holderSector == null;
+    }
+
+    public boolean matches(final ReportedDataKey reportedDataKey) {
+        return (periodFrom == null || reportedDataKey.getPeriod() >= periodFrom)
+                && (periodTo == null || reportedDataKey.getPeriod() <= periodTo)
+                && (compilingOrg == null || compilingOrg.equals(reportedDataKey.getCompilingOrg()))
+                && (isinPrefix == null || reportedDataKey.getIsin().startsWith(isinPrefix))
+                && (holderSector == null || holderSector.equals(reportedDataKey.getHolderSector()));
+    }
+}
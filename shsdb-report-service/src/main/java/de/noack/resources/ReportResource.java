@@ -1,5 +1,7 @@
 package de.noack.resources;
 
+import de.noack.model.Page;
+import de.noack.model.ReportQuery;
 import de.noack.service.ReportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,17 +10,21 @@ import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
+import java.io.InputStream;
 import java.net.URI;
 
 import static javax.ws.rs.client.Entity.entity;
 import static javax.ws.rs.core.MediaType.*;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static javax.ws.rs.core.Response.*;
 
 /**
  * This resource serves all reports of SHSDB retrieved within the last five years. Posted Reports will be persisted to a commit log selected within
  * the application properties. One report can be retrieved in a transformed way or as raw data. One dataset can only be accessed when it has been
- * transformed to JSON beforehand.
+ * transformed to JSON beforehand. Transformed reports can be filtered by a period range, the compiling organisation, an ISIN prefix and the holder
+ * sector, or be read page by page with a limit and the token of the next page. Posted reports are streamed to the commit log while they are
+ * received, so that their size is not bounded by the heap.
  *
  * @author davidnoack
  */
@@ -33,7 +39,7 @@ public class ReportResource {
 
     @POST
     @Consumes({APPLICATION_OCTET_STREAM, TEXT_CSV})
-    public Response createVanillaReport(final byte[] content) {
+    public Response createVanillaReport(final InputStream content) {
         try {
             final String messageKey = reportService.produce(content);
             return created(new URI(SERVICE_URI + messageKey)).build();
@@ -76,9 +82,25 @@ public class ReportResource {
     @GET
     @Path("transformed")
     @Produces({APPLICATION_JSON, TEXT_PLAIN})
-    public Response getTransformedReports() {
+    public Response getTransformedReports(@QueryParam("periodFrom") final Integer periodFrom, @QueryParam("periodTo") final Integer periodTo,
+                                          @QueryParam("compilingOrg") final String compilingOrg, @QueryParam("isinPrefix") final String isinPrefix,
+                                          @QueryParam("holderSector") final String holderSector, @QueryParam("limit") final Integer limit,
+                                          @QueryParam("next") final String next) {
         try {
-            return ok(reportService.allTransformedReports()).build();
+            final ReportQuery query = new ReportQuery(periodFrom, periodTo, compilingOrg, isinPrefix, holderSector);
+            if (limit != null || next != null) {
+                if (!query.isEmpty()) throw new IllegalArgumentException("Pages cannot be combined with query parameters!");
+                return ok(reportService.pageTransformedReports(next, Page.limitOf(limit)), APPLICATION_JSON).build();
+            }
+            final StreamingOutput stream = query.isEmpty()
+                    ? reportService::allTransformedReports
+                    : outputStream -> reportService.queryTransformedReports(query, outputStream);
+            return ok(stream, APPLICATION_JSON).build();
+        } catch (final IllegalArgumentException e) {
+            LOGGER.error(e.getMessage());
+            return status(BAD_REQUEST)
+                    .entity(entity(e.getMessage(), TEXT_PLAIN))
+                    .build();
         } catch (final RuntimeException e) {
             LOGGER.error(e.getMessage());
             return status(NOT_FOUND)
@@ -0,0 +1,97 @@
+package de.noack.client;
+
+import de.noack.model.ReportingSchema;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static de.noack.model.ReportingSchema.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author davidnoack
+ */
+public class ReportMappingPlanTest {
+    private static final int ROWS = 2000;
+    private static final Set<ReportingSchema> YES_OR_NO = EnumSet.of(ACCR_INTR_MV, ACCR_INTR_TX, EARLY_RED);
+    private static final Set<ReportingSchema> DECIMALS = EnumSet.of(OBS_VALUE, CONF_AMOUNT);
+    private static final Set<ReportingSchema> OPTIONAL = EnumSet.of(NOM_CURR, REPORTING_BASIS, CONF_STATUS, CONF_AMOUNT);
+    private static final String[] CODES = {"A", "S1", "EUR", "S.122", "F.3", "  USD "};
+    private static final String[] YES_OR_NO_VALUES = {"Y", "y", "N", "n", " Y ", "N "};
+    private static final String[] DECIMAL_VALUES = {"0", "-0.00", "1.5", "-1234.5678", ".25", "100.", "123456789012345678", "1234567890123456789.5",
+            "1E+3", "-2.5e-4", " 42 "};
+
+    @Test
+    public void mapsRowsInSchemaOrderLikeTheBaselineParser() {
+        assertMappedLikeTheBaselineParser(Arrays.asList(ReportingSchema.values()), new Random(1));
+    }
+
+    @Test
+    public void mapsRowsInShuffledOrderLikeTheBaselineParser() {
+        final Random random = new Random(2);
+        final List<ReportingSchema> attributes = new ArrayList<>(Arrays.asList(ReportingSchema.values()));
+        Collections.shuffle(attributes, random);
+        assertMappedLikeTheBaselineParser(attributes, random);
+    }
+
+    @Test
+    public void rejectsAHeaderWithoutAllAttributes() {
+        final String header = Arrays.stream(ReportingSchema.values()).filter(attribute -> attribute != ISIN).map(ReportingSchema::name)
+                .collect(Collectors.joining(";"));
+        assertThrows(IllegalArgumentException.class, () -> ReportMappingPlan.compile(header));
+    }
+
+    @Test
+    public void rejectsRowsWithoutMandatoryValuesLikeTheBaselineParser() {
+        final List<ReportingSchema> attributes = Arrays.asList(ReportingSchema.values());
+        final String header = attributes.stream().map(ReportingSchema::name).collect(Collectors.joining(";"));
+        final Map<ReportingSchema, Integer> columnOrder = new EnumMap<>(ReportingSchema.class);
+        for (int i = 0; i < attributes.size(); i++) {
+            columnOrder.put(attributes.get(i), i);
+        }
+        final ReportMappingPlan mappingPlan = ReportMappingPlan.compile(header);
+        final CsvTokenizer tokenizer = new CsvTokenizer(';');
+        final Random random = new Random(4);
+        for (final ReportingSchema invalidAttribute : EnumSet.of(ACCR_INTR_MV, ACCR_INTR_TX, EARLY_RED, OBS_VALUE, PERIOD)) {
+            for (final String invalidValue : new String[]{"", "X"}) {
+                final String line = attributes.stream().map(attribute -> attribute == invalidAttribute ? invalidValue : valueOf(attribute, random))
+                        .collect(Collectors.joining(";"));
+                assertThrows(RuntimeException.class, () -> BaselineReportParser.createTransformedReport(line, columnOrder), line);
+                assertThrows(RuntimeException.class, () -> mappingPlan.map(tokenizer.reset(line)), line);
+            }
+        }
+    }
+
+    private static void assertMappedLikeTheBaselineParser(final List<ReportingSchema> attributes, final Random random) {
+        final String header = attributes.stream().map(ReportingSchema::name).collect(Collectors.joining(";"));
+        final Map<ReportingSchema, Integer> columnOrder = new EnumMap<>(ReportingSchema.class);
+        for (int i = 0; i < attributes.size(); i++) {
+            columnOrder.put(attributes.get(i), i);
+        }
+        final ReportMappingPlan mappingPlan = ReportMappingPlan.compile(header);
+        assertEquals(attributes.size(), mappingPlan.columnCount());
+        final CsvTokenizer tokenizer = new CsvTokenizer(';');
+        for (int row = 0; row < ROWS; row++) {
+            final String line = attributes.stream().map(attribute -> valueOf(attribute, random)).collect(Collectors.joining(";"));
+            assertEquals(BaselineReportParser.createTransformedReport(line, columnOrder), mappingPlan.map(tokenizer.reset(line)), line);
+        }
+    }
+
+    private static String valueOf(final ReportingSchema attribute, final Random random) {
+        if (attribute == PERIOD) {
+            final int year = 2000 + random.nextInt(30);
+            return random.nextBoolean() ? year + "-Q" + (1 + random.nextInt(4)) : String.format("%d-M%02d", year, 1 + random.nextInt(12));
+        }
+        if (YES_OR_NO.contains(attribute)) return YES_OR_NO_VALUES[random.nextInt(YES_OR_NO_VALUES.length)];
+        // Mandatory attributes are never empty, as rows without them are rejected
+        if (OPTIONAL.contains(attribute) && random.nextInt(4) == 0) return random.nextBoolean() ? "" : " ";
+        if (DECIMALS.contains(attribute)) {
+            if (random.nextBoolean()) return DECIMAL_VALUES[random.nextInt(DECIMAL_VALUES.length)];
+            return random.nextInt() + "." + random.nextInt(1000);
+        }
+        if (attribute == ISIN) return "DE" + (1_000_000_000L + random.nextInt(1_000_000_000));
+        return CODES[random.nextInt(CODES.length)];
+    }
+}